@@ -0,0 +1,45 @@
+package project.benchmark;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import genius.core.Bid;
+import genius.core.Domain;
+import genius.core.uncertainty.BidRanking;
+import genius.core.utility.AdditiveUtilitySpace;
+import project.SyntheticDomain;
+
+@State(Scope.Benchmark)
+public class BenchmarkDomain {
+
+	//Synthetic discrete domain shared by the benchmarks
+	@Param({ "5", "10", "20" })
+	public int issues;
+
+	@Param({ "5", "10" })
+	public int values;
+
+	@Param({ "200" })
+	public int rankingSize;
+
+	public Domain domain;
+	public AdditiveUtilitySpace utilitySpace;
+	public BidRanking bidRanking;
+	public Bid[] randomBids;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		domain = SyntheticDomain.createDomain("benchmark", issues, values);
+		utilitySpace = SyntheticDomain.createUtilitySpace(domain, random);
+		bidRanking = SyntheticDomain.createBidRanking(utilitySpace, rankingSize, random);
+		randomBids = new Bid[1024];
+		for (int i = 0; i < randomBids.length; i++) {
+			randomBids[i] = domain.getRandomBid(random);
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package project.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import project.GenomeCodec;
+import project.GenomePopulation;
+import project.PackedGenomeStore;
+
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CandidateStoreBenchmark {
+
+	//Archive of a million random candidates, on the heap as int genes or off the heap bit-packed
+	@State(Scope.Thread)
+	public static class StoreState {
+		@Param({ "1000000" })
+		public int candidates;
+
+		public int issueCount;
+		public int[] genes;
+		public GenomePopulation population;
+		public PackedGenomeStore store;
+		public int next = 0;
+
+		@Setup
+		public void setUp(BenchmarkDomain benchmarkDomain) {
+			GenomeCodec codec = new GenomeCodec(benchmarkDomain.domain);
+			issueCount = codec.getIssueCount();
+			Random random = new Random(42);
+			//twice the archive, so half of the lookups miss
+			genes = new int[2 * candidates * issueCount];
+			for (int i = 0; i < genes.length; i++) {
+				genes[i] = random.nextInt(codec.getValueCount(i % issueCount));
+			}
+			population = new GenomePopulation(issueCount, candidates);
+			store = new PackedGenomeStore(codec, candidates, 1);
+			for (int row = 0; row < candidates; row++) {
+				population.add(genes, row * issueCount);
+				store.put(store.size(), genes, row * issueCount);
+			}
+		}
+
+		int nextOffset() {
+			next = next + 1 == 2 * candidates ? 0 : next + 1;
+			return next * issueCount;
+		}
+	}
+
+	//Dedup lookup in the heap population
+	@Benchmark
+	public boolean containsHeap(StoreState state) {
+		return state.population.contains(state.genes, state.nextOffset());
+	}
+
+	//Dedup lookup in the packed off-heap store
+	@Benchmark
+	public boolean containsPacked(StoreState state) {
+		return state.store.contains(state.genes, state.nextOffset());
+	}
+}
@@ -0,0 +1,34 @@
+package project.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import genius.core.utility.AdditiveUtilitySpace;
+import project.LinearProgramBackend;
+import project.LinearProgrammingUtilitySpaceEstimator;
+
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class EstimatorBenchmark {
+
+	//LP backend as for -Dgaagent.lpBackend
+	@Param({ "scp", "interior" })
+	public String backend;
+
+	//Builds and solves the ranking LP from scratch
+	@Benchmark
+	public AdditiveUtilitySpace estimateUsingBidRanks(BenchmarkDomain benchmarkDomain) {
+		LinearProgrammingUtilitySpaceEstimator estimator = new LinearProgrammingUtilitySpaceEstimator(benchmarkDomain.domain);
+		estimator.setBackend(LinearProgramBackend.forName(backend));
+		estimator.estimateUsingBidRanks(benchmarkDomain.bidRanking);
+		return estimator.getUtilitySpace();
+	}
+}
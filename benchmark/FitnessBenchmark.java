@@ -0,0 +1,95 @@
+package project.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import genius.core.AgentID;
+import genius.core.actions.Offer;
+import genius.core.timeline.DiscreteTimeline;
+import project.CompiledUtilitySpace;
+import project.FitnessEvaluator;
+import project.FitnessModel;
+import project.GAagent;
+import project.GenomeCodec;
+import project.GenomePopulation;
+import project.GeneticAlgorithm;
+import project.JohnnyOpponentModel;
+import project.SyntheticDomain;
+
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FitnessBenchmark {
+
+	@State(Scope.Thread)
+	public static class AgentState {
+		public GAagent agent;
+		public int next = 0;
+
+		@Setup
+		public void setUp(BenchmarkDomain benchmarkDomain) {
+			agent = new GAagent();
+			agent.init(SyntheticDomain.createInfo(benchmarkDomain.utilitySpace, benchmarkDomain.bidRanking,
+					new DiscreteTimeline(1000), 1000, 42L, "GAagent"));
+			AgentID opponent = new AgentID("opponent");
+			for (int i = 0; i < 50; i++) {
+				agent.receiveMessage(opponent, new Offer(opponent, benchmarkDomain.randomBids[i]));
+			}
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class PopulationState {
+		public GenomePopulation population;
+		public GeneticAlgorithm.BatchFitnessFunction batchFunction;
+		public GeneticAlgorithm.FitnessFunction rowFunction;
+		public FitnessEvaluator evaluator = new FitnessEvaluator();
+
+		@Setup
+		public void setUp(BenchmarkDomain benchmarkDomain) {
+			GenomeCodec codec = new GenomeCodec(benchmarkDomain.domain);
+			JohnnyOpponentModel opponentModel = new JohnnyOpponentModel(codec);
+			for (int i = 0; i < 50; i++) {
+				opponentModel.updateOpponentPreference(benchmarkDomain.randomBids[i]);
+			}
+			CompiledUtilitySpace ownUtilitySpace = CompiledUtilitySpace.compile(benchmarkDomain.utilitySpace, codec);
+			FitnessModel fitnessModel = new FitnessModel(ownUtilitySpace,
+					CompiledUtilitySpace.compileRaw(benchmarkDomain.utilitySpace, codec), opponentModel.compile(),
+					ownUtilitySpace.getMaxUtility(), 0.5);
+			population = new GenomePopulation(codec.getIssueCount(), benchmarkDomain.randomBids.length);
+			int[] genes = new int[codec.getIssueCount()];
+			for (int i = 0; i < benchmarkDomain.randomBids.length; i++) {
+				codec.encode(benchmarkDomain.randomBids[i], genes, 0);
+				population.add(genes, 0);
+			}
+			batchFunction = fitnessModel.against(codec.encode(benchmarkDomain.randomBids[0]), 0.5);
+			rowFunction = batchFunction::getFitness;
+		}
+	}
+
+	//Whole population one row per call
+	@Benchmark
+	public GenomePopulation evaluateRows(PopulationState state) {
+		state.evaluator.evaluate(state.population, state.rowFunction, false);
+		return state.population;
+	}
+
+	//Whole population in blocks through the fused kernel
+	@Benchmark
+	public GenomePopulation evaluateBatch(PopulationState state) {
+		state.evaluator.evaluate(state.population, state.batchFunction, false);
+		return state.population;
+	}
+
+	@Benchmark
+	public double getFitness(BenchmarkDomain benchmarkDomain, AgentState state) {
+		int i = state.next++ & 1023;
+		return state.agent.getFitness(benchmarkDomain.randomBids[i], benchmarkDomain.randomBids[(i + 1) & 1023], 0.5);
+	}
+}
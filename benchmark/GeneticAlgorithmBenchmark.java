@@ -0,0 +1,124 @@
+package project.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import genius.core.AgentID;
+import genius.core.actions.Offer;
+import genius.core.timeline.DiscreteTimeline;
+import project.CompiledUtilitySpace;
+import project.FitnessModel;
+import project.GAagent;
+import project.GenomeCodec;
+import project.GeneticAlgorithm;
+import project.IslandModel;
+import project.JohnnyOpponentModel;
+import project.SyntheticDomain;
+
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GeneticAlgorithmBenchmark {
+
+	//Scalar fitness against NSGA-II survivor selection, at the agent's population size and at 10k
+	@State(Scope.Thread)
+	public static class EngineState {
+		@Param({ "scalar", "nsga2" })
+		public String selection;
+
+		@Param({ "100", "10000" })
+		public int popSize;
+
+		public GeneticAlgorithm geneticAlgorithm;
+		public GeneticAlgorithm.FitnessFunction fitnessFunction;
+
+		@Setup
+		public void setUp(BenchmarkDomain benchmarkDomain) {
+			GenomeCodec codec = new GenomeCodec(benchmarkDomain.domain);
+			geneticAlgorithm = new GeneticAlgorithm(codec, popSize, popSize * 4 / 5, 0.1, 0.6, 0.05,
+					GeneticAlgorithm.getSelection(selection), new Random(42));
+			geneticAlgorithm.seed(benchmarkDomain.bidRanking.getBidOrder());
+			fitnessFunction = createFitnessModel(benchmarkDomain, codec).cached(0.5);
+		}
+	}
+
+	//Islands of 100 on the common pool, ring migration every 5 generations
+	@State(Scope.Thread)
+	public static class IslandState {
+		@Param({ "1", "4" })
+		public int islands;
+
+		public IslandModel islandModel;
+		public GeneticAlgorithm.FitnessFunction fitnessFunction;
+
+		@Setup
+		public void setUp(BenchmarkDomain benchmarkDomain) {
+			GenomeCodec codec = new GenomeCodec(benchmarkDomain.domain);
+			islandModel = IslandModel.create(codec, islands, 100, 80, 0.1, 0.6, 0.05, GeneticAlgorithm.SCALAR, 42L, 5, 5,
+					IslandModel.RING);
+			islandModel.seed(benchmarkDomain.bidRanking.getBidOrder());
+			fitnessFunction = createFitnessModel(benchmarkDomain, codec).cached(0.5);
+		}
+	}
+
+	private static FitnessModel createFitnessModel(BenchmarkDomain benchmarkDomain, GenomeCodec codec) {
+		JohnnyOpponentModel opponentModel = new JohnnyOpponentModel(codec);
+		for (int i = 0; i < 50; i++) {
+			opponentModel.updateOpponentPreference(benchmarkDomain.randomBids[i]);
+		}
+		CompiledUtilitySpace ownUtilitySpace = CompiledUtilitySpace.compile(benchmarkDomain.utilitySpace, codec);
+		FitnessModel fitnessModel = new FitnessModel(ownUtilitySpace,
+				CompiledUtilitySpace.compileRaw(benchmarkDomain.utilitySpace, codec), opponentModel.compile(),
+				ownUtilitySpace.getMaxUtility(), 0.5);
+		fitnessModel.setOpponentOffer(codec.encode(benchmarkDomain.randomBids[0]));
+		return fitnessModel;
+	}
+
+	@State(Scope.Thread)
+	public static class AgentState {
+		public GAagent agent;
+		public DiscreteTimeline timeline;
+		public AgentID opponent = new AgentID("opponent");
+		public int next = 0;
+
+		@Setup
+		public void setUp(BenchmarkDomain benchmarkDomain) {
+			timeline = new DiscreteTimeline(Integer.MAX_VALUE);
+			agent = new GAagent();
+			agent.init(SyntheticDomain.createInfo(benchmarkDomain.utilitySpace, benchmarkDomain.bidRanking, timeline,
+					Integer.MAX_VALUE, 42L, "GAagent"));
+			agent.chooseAction(null);
+		}
+	}
+
+	//One generation of the engine
+	@Benchmark
+	public void evolveGeneration(EngineState state, Blackhole blackhole) {
+		state.geneticAlgorithm.evolve(state.fitnessFunction);
+		blackhole.consume(state.geneticAlgorithm.getPopulation());
+	}
+
+	//One generation on every island, in parallel
+	@Benchmark
+	public void evolveIslands(IslandState state, Blackhole blackhole) {
+		state.islandModel.evolve(state.fitnessFunction);
+		blackhole.consume(state.islandModel.getBest());
+	}
+
+	//One full turn: opponent offer, model update, generation and offer choice
+	@Benchmark
+	public void chooseAction(BenchmarkDomain benchmarkDomain, AgentState state, Blackhole blackhole) {
+		Offer offer = new Offer(state.opponent, benchmarkDomain.randomBids[state.next++ & 1023]);
+		state.agent.receiveMessage(state.opponent, offer);
+		blackhole.consume(state.agent.chooseAction(null));
+	}
+}
@@ -0,0 +1,42 @@
+package project.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import project.JohnnyOpponentModel;
+
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OpponentModelBenchmark {
+
+	@State(Scope.Thread)
+	public static class ModelState {
+		public JohnnyOpponentModel opponentModel;
+		public int next = 0;
+
+		@Setup
+		public void setUp(BenchmarkDomain benchmarkDomain) {
+			opponentModel = new JohnnyOpponentModel(benchmarkDomain.utilitySpace);
+			for (int i = 0; i < 100; i++) {
+				opponentModel.updateOpponentPreference(benchmarkDomain.randomBids[i]);
+			}
+		}
+	}
+
+	@Benchmark
+	public void updateOpponentPreference(BenchmarkDomain benchmarkDomain, ModelState state) {
+		state.opponentModel.updateOpponentPreference(benchmarkDomain.randomBids[state.next++ & 1023]);
+	}
+
+	@Benchmark
+	public double getOpponentUtility(BenchmarkDomain benchmarkDomain, ModelState state) {
+		return state.opponentModel.getOpponentUtility(benchmarkDomain.randomBids[state.next++ & 1023]);
+	}
+}
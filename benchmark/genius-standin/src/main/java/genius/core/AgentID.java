@@ -0,0 +1,29 @@
+package genius.core;
+
+public class AgentID {
+
+	private final String name;
+
+	public AgentID(String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof AgentID && ((AgentID) other).name.equals(name);
+	}
+
+	@Override
+	public int hashCode() {
+		return name.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
@@ -0,0 +1,64 @@
+package genius.core;
+
+import java.util.HashMap;
+import java.util.List;
+
+import genius.core.issue.Issue;
+import genius.core.issue.Value;
+
+public class Bid {
+
+	//Values by issue number; bids are equal when their values are
+	private final Domain domain;
+	private final HashMap<Integer, Value> values;
+
+	public Bid(Domain domain, HashMap<Integer, Value> values) {
+		this.domain = domain;
+		this.values = new HashMap<Integer, Value>(values);
+	}
+
+	public Bid(Domain domain) {
+		this(domain, new HashMap<Integer, Value>());
+	}
+
+	public Value getValue(Issue issue) {
+		return values.get(issue.getNumber());
+	}
+
+	public Value getValue(int issueNumber) {
+		return values.get(issueNumber);
+	}
+
+	public Bid putValue(int issueNumber, Value value) {
+		HashMap<Integer, Value> copy = new HashMap<Integer, Value>(values);
+		copy.put(issueNumber, value);
+		return new Bid(domain, copy);
+	}
+
+	public List<Issue> getIssues() {
+		return domain.getIssues();
+	}
+
+	public Domain getDomain() {
+		return domain;
+	}
+
+	public HashMap<Integer, Value> getValues() {
+		return new HashMap<Integer, Value>(values);
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof Bid && ((Bid) other).values.equals(values);
+	}
+
+	@Override
+	public int hashCode() {
+		return values.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return "Bid" + values;
+	}
+}
@@ -0,0 +1,10 @@
+package genius.core;
+
+public class Deadline {
+
+	public Deadline() {
+	}
+
+	public Deadline(int value, DeadlineType type) {
+	}
+}
@@ -0,0 +1,5 @@
+package genius.core;
+
+public enum DeadlineType {
+	ROUND, TIME
+}
@@ -0,0 +1,20 @@
+package genius.core;
+
+import java.util.List;
+import java.util.Random;
+
+import genius.core.issue.Issue;
+import genius.core.issue.Objective;
+
+public interface Domain {
+
+	List<Issue> getIssues();
+
+	String getName();
+
+	Objective getObjectivesRoot();
+
+	Bid getRandomBid(Random random);
+
+	long getNumberOfPossibleBids();
+}
@@ -0,0 +1,67 @@
+package genius.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import genius.core.issue.Issue;
+import genius.core.issue.IssueDiscrete;
+import genius.core.issue.Objective;
+import genius.core.issue.Value;
+
+public class DomainImpl implements Domain {
+
+	//Flat domain: the issues are the children of the objectives root
+	private Objective root;
+	private String name = "d";
+
+	public DomainImpl() {
+	}
+
+	public DomainImpl(String name) {
+		this.name = name;
+	}
+
+	public void setObjectivesRoot(Objective root) {
+		this.root = root;
+	}
+
+	@Override
+	public List<Issue> getIssues() {
+		List<Issue> issues = new ArrayList<Issue>();
+		for (Objective objective : root.getChildren()) {
+			issues.add((Issue) objective);
+		}
+		return issues;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public Objective getObjectivesRoot() {
+		return root;
+	}
+
+	@Override
+	public Bid getRandomBid(Random random) {
+		HashMap<Integer, Value> values = new HashMap<Integer, Value>();
+		for (Issue issue : getIssues()) {
+			IssueDiscrete issueDiscrete = (IssueDiscrete) issue;
+			values.put(issue.getNumber(), issueDiscrete.getValue(random.nextInt(issueDiscrete.getNumberOfValues())));
+		}
+		return new Bid(this, values);
+	}
+
+	@Override
+	public long getNumberOfPossibleBids() {
+		long count = 1;
+		for (Issue issue : getIssues()) {
+			count = count * ((IssueDiscrete) issue).getNumberOfValues();
+		}
+		return count;
+	}
+}
@@ -0,0 +1,24 @@
+package genius.core.actions;
+
+import genius.core.AgentID;
+import genius.core.Bid;
+
+public class Accept implements Action {
+
+	private final AgentID agent;
+	private final Bid bid;
+
+	public Accept(AgentID agent, Bid bid) {
+		this.agent = agent;
+		this.bid = bid;
+	}
+
+	public Bid getBid() {
+		return bid;
+	}
+
+	@Override
+	public AgentID getAgent() {
+		return agent;
+	}
+}
@@ -0,0 +1,8 @@
+package genius.core.actions;
+
+import genius.core.AgentID;
+
+public interface Action {
+
+	AgentID getAgent();
+}
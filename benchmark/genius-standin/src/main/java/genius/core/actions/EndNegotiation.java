@@ -0,0 +1,17 @@
+package genius.core.actions;
+
+import genius.core.AgentID;
+
+public class EndNegotiation implements Action {
+
+	private final AgentID agent;
+
+	public EndNegotiation(AgentID agent) {
+		this.agent = agent;
+	}
+
+	@Override
+	public AgentID getAgent() {
+		return agent;
+	}
+}
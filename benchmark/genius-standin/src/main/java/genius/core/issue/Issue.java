@@ -0,0 +1,11 @@
+package genius.core.issue;
+
+public abstract class Issue extends Objective {
+
+	public Issue() {
+	}
+
+	public Issue(String name, int number) {
+		super(null, name, number);
+	}
+}
@@ -0,0 +1,36 @@
+package genius.core.issue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class IssueDiscrete extends Issue {
+
+	private final List<ValueDiscrete> values = new ArrayList<ValueDiscrete>();
+
+	public IssueDiscrete(String name, int number, String[] values) {
+		super(name, number);
+		for (String value : values) {
+			this.values.add(new ValueDiscrete(value));
+		}
+	}
+
+	public List<ValueDiscrete> getValues() {
+		return values;
+	}
+
+	public ValueDiscrete getValue(int index) {
+		return values.get(index);
+	}
+
+	public int getNumberOfValues() {
+		return values.size();
+	}
+
+	public int getValueIndex(ValueDiscrete value) {
+		return values.indexOf(value);
+	}
+
+	public int getValueIndex(String value) {
+		return values.indexOf(new ValueDiscrete(value));
+	}
+}
@@ -0,0 +1,40 @@
+package genius.core.issue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class Objective {
+
+	private final List<Objective> children = new ArrayList<Objective>();
+	private String name;
+	private int number;
+
+	public Objective() {
+	}
+
+	public Objective(Objective parent, String name, int number) {
+		this.name = name;
+		this.number = number;
+	}
+
+	public void addChild(Objective child) {
+		children.add(child);
+	}
+
+	public List<Objective> getChildren() {
+		return children;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getNumber() {
+		return number;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
@@ -0,0 +1,4 @@
+package genius.core.issue;
+
+public abstract class Value {
+}
@@ -0,0 +1,29 @@
+package genius.core.issue;
+
+public class ValueDiscrete extends Value {
+
+	private final String value;
+
+	public ValueDiscrete(String value) {
+		this.value = value;
+	}
+
+	public String getValue() {
+		return value;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof ValueDiscrete && ((ValueDiscrete) other).value.equals(value);
+	}
+
+	@Override
+	public int hashCode() {
+		return value.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return value;
+	}
+}
@@ -0,0 +1,69 @@
+package genius.core.parties;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import genius.core.AgentID;
+import genius.core.Bid;
+import genius.core.Domain;
+import genius.core.actions.Action;
+import genius.core.timeline.TimeLineInfo;
+import genius.core.uncertainty.UserModel;
+import genius.core.utility.AbstractUtilitySpace;
+
+public abstract class AbstractNegotiationParty {
+
+	protected AbstractUtilitySpace utilitySpace;
+	protected Random rand;
+	protected TimeLineInfo timeline;
+	protected UserModel userModel;
+	private AgentID partyId;
+
+	//Under preference uncertainty the party's own estimate replaces the given utility space
+	public void init(NegotiationInfo info) {
+		userModel = info.getUserModel();
+		timeline = info.getTimeline();
+		rand = new Random(info.getRandomSeed());
+		partyId = info.getAgentID();
+		utilitySpace = info.getUtilitySpace();
+		if (userModel != null) {
+			utilitySpace = estimateUtilitySpace();
+		}
+	}
+
+	public AbstractUtilitySpace estimateUtilitySpace() {
+		return null;
+	}
+
+	public abstract Action chooseAction(List<Class<? extends Action>> possibleActions);
+
+	public void receiveMessage(AgentID sender, Action action) {
+	}
+
+	public abstract String getDescription();
+
+	public double getUtility(Bid bid) {
+		return utilitySpace.getUtility(bid);
+	}
+
+	public TimeLineInfo getTimeLine() {
+		return timeline;
+	}
+
+	public AgentID getPartyId() {
+		return partyId;
+	}
+
+	public Domain getDomain() {
+		return utilitySpace != null ? utilitySpace.getDomain() : userModel.getDomain();
+	}
+
+	public AbstractUtilitySpace getUtilitySpace() {
+		return utilitySpace;
+	}
+
+	public Map<String, String> negotiationEnded(Bid acceptedBid) {
+		return null;
+	}
+}
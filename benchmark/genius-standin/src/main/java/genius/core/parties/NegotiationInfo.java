@@ -0,0 +1,47 @@
+package genius.core.parties;
+
+import genius.core.AgentID;
+import genius.core.Deadline;
+import genius.core.persistent.PersistentDataContainer;
+import genius.core.timeline.TimeLineInfo;
+import genius.core.uncertainty.User;
+import genius.core.uncertainty.UserModel;
+import genius.core.utility.AbstractUtilitySpace;
+
+public class NegotiationInfo {
+
+	private final AbstractUtilitySpace utilitySpace;
+	private final UserModel userModel;
+	private final TimeLineInfo timeline;
+	private final long randomSeed;
+	private final AgentID agentID;
+
+	public NegotiationInfo(AbstractUtilitySpace utilitySpace, UserModel userModel, User user, Deadline deadline,
+			TimeLineInfo timeline, long randomSeed, AgentID agentID, PersistentDataContainer storage) {
+		this.utilitySpace = utilitySpace;
+		this.userModel = userModel;
+		this.timeline = timeline;
+		this.randomSeed = randomSeed;
+		this.agentID = agentID;
+	}
+
+	public AbstractUtilitySpace getUtilitySpace() {
+		return utilitySpace;
+	}
+
+	public UserModel getUserModel() {
+		return userModel;
+	}
+
+	public long getRandomSeed() {
+		return randomSeed;
+	}
+
+	public TimeLineInfo getTimeline() {
+		return timeline;
+	}
+
+	public AgentID getAgentID() {
+		return agentID;
+	}
+}
@@ -0,0 +1,4 @@
+package genius.core.persistent;
+
+public interface PersistentDataContainer {
+}
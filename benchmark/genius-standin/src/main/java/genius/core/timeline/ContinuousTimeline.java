@@ -0,0 +1,27 @@
+package genius.core.timeline;
+
+public class ContinuousTimeline implements TimeLineInfo {
+
+	//Seconds from construction; time is the fraction of the deadline elapsed
+	private final int totalSeconds;
+	private final long startNanos = System.nanoTime();
+
+	public ContinuousTimeline(int totalSeconds) {
+		this.totalSeconds = totalSeconds;
+	}
+
+	@Override
+	public double getTime() {
+		return Math.min(1.0, getCurrentTime() / totalSeconds);
+	}
+
+	@Override
+	public double getTotalTime() {
+		return totalSeconds;
+	}
+
+	@Override
+	public double getCurrentTime() {
+		return (System.nanoTime() - startNanos) / 1e9;
+	}
+}
@@ -0,0 +1,35 @@
+package genius.core.timeline;
+
+public class DiscreteTimeline implements TimeLineInfo {
+
+	//Rounds from 1; time is the fraction of the rounds reached
+	private final int totalRounds;
+	private int round = 1;
+
+	public DiscreteTimeline(int totalRounds) {
+		this.totalRounds = totalRounds;
+	}
+
+	public void increment() {
+		round++;
+	}
+
+	@Override
+	public double getTime() {
+		return Math.min(1.0, (double) round / totalRounds);
+	}
+
+	@Override
+	public double getTotalTime() {
+		return totalRounds;
+	}
+
+	@Override
+	public double getCurrentTime() {
+		return round;
+	}
+
+	public int getRound() {
+		return round;
+	}
+}
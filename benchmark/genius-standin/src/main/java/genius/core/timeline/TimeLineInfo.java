@@ -0,0 +1,11 @@
+package genius.core.timeline;
+
+public interface TimeLineInfo {
+
+	//Normalised time in [0, 1]
+	double getTime();
+
+	double getTotalTime();
+
+	double getCurrentTime();
+}
@@ -0,0 +1,61 @@
+package genius.core.uncertainty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import genius.core.Bid;
+
+public class BidRanking {
+
+	//Bids from worst to best
+	private final List<Bid> bidOrder;
+	private final double lowUtility;
+	private final double highUtility;
+
+	public BidRanking(List<Bid> bidOrder, double lowUtility, double highUtility) {
+		this.bidOrder = bidOrder;
+		this.lowUtility = lowUtility;
+		this.highUtility = highUtility;
+	}
+
+	public int getSize() {
+		return bidOrder.size();
+	}
+
+	public List<Bid> getBidOrder() {
+		return bidOrder;
+	}
+
+	public Bid getBidOrder(int index) {
+		return bidOrder.get(index);
+	}
+
+	public int getAmountOfComparisons() {
+		return bidOrder.size() - 1;
+	}
+
+	//Each bid against the next, which it ranks below
+	public List<OutcomeComparison> getPairwiseComparisons() {
+		List<OutcomeComparison> comparisons = new ArrayList<OutcomeComparison>();
+		for (int i = 0; i + 1 < bidOrder.size(); i++) {
+			comparisons.add(new OutcomeComparison(bidOrder.get(i), bidOrder.get(i + 1), -1));
+		}
+		return comparisons;
+	}
+
+	public Bid getMaximalBid() {
+		return bidOrder.get(bidOrder.size() - 1);
+	}
+
+	public Bid getMinimalBid() {
+		return bidOrder.get(0);
+	}
+
+	public Double getLowUtility() {
+		return lowUtility;
+	}
+
+	public Double getHighUtility() {
+		return highUtility;
+	}
+}
@@ -0,0 +1,28 @@
+package genius.core.uncertainty;
+
+import genius.core.Bid;
+
+public class OutcomeComparison {
+
+	private final Bid bid1;
+	private final Bid bid2;
+	private final int comparisonResult;
+
+	public OutcomeComparison(Bid bid1, Bid bid2, int comparisonResult) {
+		this.bid1 = bid1;
+		this.bid2 = bid2;
+		this.comparisonResult = comparisonResult;
+	}
+
+	public Bid getBid1() {
+		return bid1;
+	}
+
+	public Bid getBid2() {
+		return bid2;
+	}
+
+	public int getComparisonResult() {
+		return comparisonResult;
+	}
+}
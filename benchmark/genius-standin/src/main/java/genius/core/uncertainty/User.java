@@ -0,0 +1,9 @@
+package genius.core.uncertainty;
+
+import genius.core.utility.AbstractUtilitySpace;
+
+public class User {
+
+	public User(AbstractUtilitySpace utilitySpace) {
+	}
+}
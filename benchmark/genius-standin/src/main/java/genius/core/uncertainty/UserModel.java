@@ -0,0 +1,20 @@
+package genius.core.uncertainty;
+
+import genius.core.Domain;
+
+public class UserModel {
+
+	private final BidRanking bidRanking;
+
+	public UserModel(BidRanking bidRanking) {
+		this.bidRanking = bidRanking;
+	}
+
+	public BidRanking getBidRanking() {
+		return bidRanking;
+	}
+
+	public Domain getDomain() {
+		return bidRanking.getBidOrder().get(0).getDomain();
+	}
+}
@@ -0,0 +1,23 @@
+package genius.core.utility;
+
+import genius.core.Bid;
+import genius.core.Domain;
+
+public abstract class AbstractUtilitySpace {
+
+	protected Domain domain;
+
+	public abstract double getUtility(Bid bid);
+
+	public Domain getDomain() {
+		return domain;
+	}
+
+	public Bid getMaxUtilityBid() throws Exception {
+		return null;
+	}
+
+	public Bid getMinUtilityBid() throws Exception {
+		return null;
+	}
+}
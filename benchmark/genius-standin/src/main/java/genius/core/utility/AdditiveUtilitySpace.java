@@ -0,0 +1,92 @@
+package genius.core.utility;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import genius.core.Bid;
+import genius.core.Domain;
+import genius.core.issue.Issue;
+import genius.core.issue.IssueDiscrete;
+import genius.core.issue.Objective;
+import genius.core.issue.Value;
+import genius.core.issue.ValueDiscrete;
+
+public class AdditiveUtilitySpace extends AbstractUtilitySpace {
+
+	//Weighted sum of the discrete evaluators of the domain's issues
+	private final Map<Objective, Evaluator> evaluators;
+
+	public AdditiveUtilitySpace(Domain domain, Map<Objective, Evaluator> evaluators) {
+		this.domain = domain;
+		this.evaluators = new LinkedHashMap<Objective, Evaluator>(evaluators);
+	}
+
+	public AdditiveUtilitySpace(Domain domain) {
+		this(domain, new HashMap<Objective, Evaluator>());
+	}
+
+	public Evaluator getEvaluator(Objective objective) {
+		return evaluators.get(objective);
+	}
+
+	public Evaluator getEvaluator(int issueNumber) {
+		for (Map.Entry<Objective, Evaluator> entry : evaluators.entrySet()) {
+			if (entry.getKey().getNumber() == issueNumber) {
+				return entry.getValue();
+			}
+		}
+		return null;
+	}
+
+	public double getWeight(Objective objective) {
+		return evaluators.get(objective).getWeight();
+	}
+
+	public double getWeight(int issueNumber) {
+		return getEvaluator(issueNumber).getWeight();
+	}
+
+	public Evaluator addEvaluator(Objective objective, Evaluator evaluator) {
+		return evaluators.put(objective, evaluator);
+	}
+
+	public void normalizeWeights() {
+		double sum = 0;
+		for (Evaluator evaluator : evaluators.values()) {
+			sum = sum + evaluator.getWeight();
+		}
+		if (sum > 0) {
+			for (Evaluator evaluator : evaluators.values()) {
+				evaluator.setWeight(evaluator.getWeight() / sum);
+			}
+		}
+	}
+
+	@Override
+	public double getUtility(Bid bid) {
+		double utility = 0;
+		for (Issue issue : domain.getIssues()) {
+			EvaluatorDiscrete evaluator = (EvaluatorDiscrete) evaluators.get(issue);
+			utility = utility + evaluator.getWeight() * evaluator.getEvaluation((ValueDiscrete) bid.getValue(issue));
+		}
+		return utility;
+	}
+
+	//Best value of every issue
+	@Override
+	public Bid getMaxUtilityBid() {
+		HashMap<Integer, Value> values = new HashMap<Integer, Value>();
+		for (Issue issue : domain.getIssues()) {
+			EvaluatorDiscrete evaluator = (EvaluatorDiscrete) evaluators.get(issue);
+			ValueDiscrete best = null;
+			for (ValueDiscrete value : ((IssueDiscrete) issue).getValues()) {
+				if (best == null || evaluator.getEvaluation(value) > evaluator.getEvaluation(best)) {
+					best = value;
+				}
+			}
+			values.put(issue.getNumber(), best);
+		}
+		return new Bid(domain, values);
+	}
+}
@@ -0,0 +1,8 @@
+package genius.core.utility;
+
+public interface Evaluator {
+
+	double getWeight();
+
+	void setWeight(double weight);
+}
@@ -0,0 +1,71 @@
+package genius.core.utility;
+
+import java.util.HashMap;
+import java.util.Set;
+
+import genius.core.issue.ValueDiscrete;
+
+public class EvaluatorDiscrete implements Evaluator {
+
+	//Raw evaluations; getEvaluation scales them by the largest
+	private double weight;
+	private final HashMap<ValueDiscrete, Double> evaluations = new HashMap<ValueDiscrete, Double>();
+
+	@Override
+	public double getWeight() {
+		return weight;
+	}
+
+	@Override
+	public void setWeight(double weight) {
+		this.weight = weight;
+	}
+
+	public void setEvaluationDouble(ValueDiscrete value, double evaluation) {
+		evaluations.put(value, evaluation);
+	}
+
+	public Double getDoubleValue(ValueDiscrete value) {
+		return evaluations.get(value);
+	}
+
+	private double getMax() {
+		double max = 0;
+		for (double evaluation : evaluations.values()) {
+			max = Math.max(max, evaluation);
+		}
+		return max;
+	}
+
+	public Double getEvaluation(ValueDiscrete value) {
+		double max = getMax();
+		return max == 0 ? 0.0 : evaluations.get(value) / max;
+	}
+
+	public void normalizeAll() {
+		double max = getMax();
+		if (max > 0) {
+			for (ValueDiscrete value : evaluations.keySet()) {
+				evaluations.put(value, evaluations.get(value) / max);
+			}
+		}
+	}
+
+	public void scaleAllValuesFrom0To1() {
+		double low = Double.MAX_VALUE;
+		double high = 0;
+		for (double evaluation : evaluations.values()) {
+			low = Math.min(low, evaluation);
+			high = Math.max(high, evaluation);
+		}
+		if (high > low) {
+			for (ValueDiscrete value : evaluations.keySet()) {
+				evaluations.put(value, (evaluations.get(value) - low) / (high - low));
+			}
+		}
+	}
+
+	public Set<ValueDiscrete> getValues() {
+		return evaluations.keySet();
+	}
+}
@@ -0,0 +1,35 @@
+package project;
+
+public class AcceptanceCurve {
+
+	//Own utility an offer needs to be accepted at normalised time t, tabulated once per estimate:
+	//floor + (maxUtility - floor) * (1 - t^(1/beta)), the agent's time pressure scaled between its
+	//max-utility bid and a floor. A turn then costs a table lookup instead of a pow.
+	private final double[] bars;
+
+	public AcceptanceCurve(double maxUtility, double floor, double beta, int steps) {
+		bars = new double[steps + 1];
+		for (int step = 0; step <= steps; step++) {
+			double time = (double) step / steps;
+			bars[step] = floor + (maxUtility - floor) * (1 - Math.pow(time, 1 / beta));
+		}
+	}
+
+	//-Dgaagent.acceptanceFloor=f, the bar at the deadline as a fraction of maxUtility; null when unset
+	public static AcceptanceCurve fromSystemProperties(double maxUtility, double beta) {
+		String floor = System.getProperty("gaagent.acceptanceFloor");
+		return floor == null ? null : new AcceptanceCurve(maxUtility, Double.parseDouble(floor) * maxUtility, beta, 1024);
+	}
+
+	//Linear between the tabulated steps, time clamped to [0, 1]
+	public double getBar(double time) {
+		double position = Math.min(Math.max(time, 0.0), 1.0) * (bars.length - 1);
+		int step = Math.min((int) position, bars.length - 2);
+		double fraction = position - step;
+		return bars[step] + fraction * (bars[step + 1] - bars[step]);
+	}
+
+	public boolean accepts(double utility, double time) {
+		return utility >= getBar(time);
+	}
+}
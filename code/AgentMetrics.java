@@ -0,0 +1,224 @@
+package project;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class AgentMetrics {
+
+	//Receives trace lines and the end-of-session summary
+	public interface Sink {
+		void trace(String message);
+
+		void summary(AgentMetrics metrics);
+	}
+
+	//Timers, recorded in nanoseconds
+	public static final int ROUND = 0;
+	public static final int EVALUATION = 1;
+	public static final int SELECTION = 2;
+	public static final int CROSSOVER = 3;
+	public static final int MUTATION = 4;
+	public static final int OFFER_CHOICE = 5;
+	public static final int LP_BUILD = 6;
+	public static final int LP_SOLVE = 7;
+	private static final String[] TIMER_NAMES = { "round", "evaluation", "selection", "crossover", "mutation",
+			"offerChoice", "lpBuild", "lpSolve" };
+
+	//Counters
+	public static final int GENERATIONS = 0;
+	public static final int OFFERS_SENT = 1;
+	public static final int OFFERS_RECEIVED = 2;
+	public static final int ACCEPTS = 3;
+	public static final int LP_SOLVES = 4;
+	public static final int LP_REUSED = 5;
+	public static final int LP_ROWS = 6;
+	public static final int MIGRANTS = 7;
+	private static final String[] COUNTER_NAMES = { "generations", "offersSent", "offersReceived", "accepts",
+			"lpSolves", "lpReused", "lpRows", "migrants" };
+
+	//Log2 buckets of nanoseconds: bucket b holds [2^b, 2^(b+1))
+	private static final int BUCKETS = 64;
+
+	//Shared no-op instance; every recording call returns after one branch
+	public static final AgentMetrics DISABLED = new AgentMetrics(false, null, false);
+
+	private final boolean enabled;
+	private final boolean tracing;
+	private final Sink sink;
+	private final AtomicLongArray timerCount;
+	private final AtomicLongArray timerTotal;
+	private final AtomicLongArray timerMax;
+	private final AtomicLongArray histogram;
+	private final AtomicLongArray counters;
+
+	public AgentMetrics(boolean enabled, Sink sink, boolean tracing) {
+		this.enabled = enabled;
+		this.sink = sink;
+		this.tracing = enabled && tracing && sink != null;
+		int timers = enabled ? TIMER_NAMES.length : 0;
+		timerCount = new AtomicLongArray(timers);
+		timerTotal = new AtomicLongArray(timers);
+		timerMax = new AtomicLongArray(timers);
+		histogram = new AtomicLongArray(timers * BUCKETS);
+		counters = new AtomicLongArray(enabled ? COUNTER_NAMES.length : 0);
+	}
+
+	//-Dgaagent.metrics=off|summary|trace, reported on standard output
+	public static AgentMetrics fromSystemProperties() {
+		String mode = System.getProperty("gaagent.metrics", "off");
+		if ("summary".equals(mode)) {
+			return new AgentMetrics(true, new ConsoleSink(System.out), false);
+		}
+		if ("trace".equals(mode)) {
+			return new AgentMetrics(true, new ConsoleSink(System.out), true);
+		}
+		return DISABLED;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	//Callers check this before building a trace message
+	public boolean isTracing() {
+		return tracing;
+	}
+
+	public long start() {
+		return enabled ? System.nanoTime() : 0L;
+	}
+
+	//Records the time since start and returns now, so phases can be chained
+	public long stop(int timer, long start) {
+		if (!enabled) {
+			return 0L;
+		}
+		long now = System.nanoTime();
+		record(timer, now - start);
+		return now;
+	}
+
+	public void record(int timer, long nanos) {
+		if (!enabled) {
+			return;
+		}
+		nanos = Math.max(nanos, 0L);
+		timerCount.incrementAndGet(timer);
+		timerTotal.addAndGet(timer, nanos);
+		long max = timerMax.get(timer);
+		while (nanos > max && !timerMax.compareAndSet(timer, max, nanos)) {
+			max = timerMax.get(timer);
+		}
+		histogram.incrementAndGet(timer * BUCKETS + bucket(nanos));
+	}
+
+	public void increment(int counter) {
+		if (enabled) {
+			counters.incrementAndGet(counter);
+		}
+	}
+
+	public void add(int counter, long delta) {
+		if (enabled) {
+			counters.addAndGet(counter, delta);
+		}
+	}
+
+	public void trace(String message) {
+		if (tracing) {
+			sink.trace(message);
+		}
+	}
+
+	public void report() {
+		if (enabled && sink != null) {
+			sink.summary(this);
+		}
+	}
+
+	private static int bucket(long nanos) {
+		return nanos == 0L ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+	}
+
+	public long getCount(int timer) {
+		return enabled ? timerCount.get(timer) : 0L;
+	}
+
+	public long getTotalNanos(int timer) {
+		return enabled ? timerTotal.get(timer) : 0L;
+	}
+
+	public long getMaxNanos(int timer) {
+		return enabled ? timerMax.get(timer) : 0L;
+	}
+
+	//Upper bound of the bucket holding the given quantile, within a factor of two
+	public long getPercentileNanos(int timer, double quantile) {
+		long count = getCount(timer);
+		if (count == 0L) {
+			return 0L;
+		}
+		long rank = (long) Math.ceil(quantile * count);
+		long seen = 0L;
+		for (int b = 0; b < BUCKETS; b++) {
+			seen = seen + histogram.get(timer * BUCKETS + b);
+			if (seen >= rank) {
+				return Math.min(b == 63 ? Long.MAX_VALUE : (1L << (b + 1)) - 1, getMaxNanos(timer));
+			}
+		}
+		return getMaxNanos(timer);
+	}
+
+	public long getCounter(int counter) {
+		return enabled ? counters.get(counter) : 0L;
+	}
+
+	public static int getTimerCount() {
+		return TIMER_NAMES.length;
+	}
+
+	public static String getTimerName(int timer) {
+		return TIMER_NAMES[timer];
+	}
+
+	public static int getCounterCount() {
+		return COUNTER_NAMES.length;
+	}
+
+	public static String getCounterName(int counter) {
+		return COUNTER_NAMES[counter];
+	}
+
+	public static class ConsoleSink implements Sink {
+		private final PrintStream out;
+
+		public ConsoleSink(PrintStream out) {
+			this.out = out;
+		}
+
+		@Override
+		public void trace(String message) {
+			out.println(message);
+		}
+
+		@Override
+		public void summary(AgentMetrics metrics) {
+			StringBuilder line = new StringBuilder("metrics");
+			for (int timer = 0; timer < getTimerCount(); timer++) {
+				long count = metrics.getCount(timer);
+				if (count == 0L) {
+					continue;
+				}
+				line.append(' ').append(getTimerName(timer)).append("<n=").append(count)
+						.append(",meanUs=").append(metrics.getTotalNanos(timer) / count / 1000)
+						.append(",p50Us<=").append(metrics.getPercentileNanos(timer, 0.5) / 1000)
+						.append(",p99Us<=").append(metrics.getPercentileNanos(timer, 0.99) / 1000)
+						.append(",maxUs=").append(metrics.getMaxNanos(timer) / 1000).append('>');
+			}
+			for (int counter = 0; counter < getCounterCount(); counter++) {
+				line.append(' ').append(getCounterName(counter)).append('=').append(metrics.getCounter(counter));
+			}
+			out.println(line);
+		}
+	}
+}
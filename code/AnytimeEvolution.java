@@ -0,0 +1,122 @@
+package project;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+public class AnytimeEvolution {
+
+	//Runs GA generations (on every island) on a background thread between turns and within a per-turn budget.
+	//Every generation asks the supplier for a fresh fitness function, so a new opponent offer
+	//or model published through the volatile FitnessModel is used from the next generation on.
+	private final IslandModel islandModel;
+	private final Supplier<GeneticAlgorithm.FitnessFunction> fitnessSource;
+	//fair, so a waiting turn gets the population after at most one background generation
+	private final ReentrantLock lock = new ReentrantLock(true);
+	//signalled when a turn is done; the background thread parks on it while a turn waits or runs
+	private final Condition turnDone = lock.newCondition();
+	private volatile boolean running = false;
+	//set while a turn waits or runs, so the background thread also gives up the CPU on small machines
+	private volatile boolean turnWaiting = false;
+	private volatile long backgroundGenerations = 0;
+	private Thread worker;
+
+	public AnytimeEvolution(GeneticAlgorithm geneticAlgorithm, Supplier<GeneticAlgorithm.FitnessFunction> fitnessSource) {
+		this(new IslandModel(geneticAlgorithm), fitnessSource);
+	}
+
+	public AnytimeEvolution(IslandModel islandModel, Supplier<GeneticAlgorithm.FitnessFunction> fitnessSource) {
+		this.islandModel = islandModel;
+		this.fitnessSource = fitnessSource;
+	}
+
+	//The background thread ends by itself once deadlinePassed is true, should stop() never be called
+	public synchronized void start(final BooleanSupplier deadlinePassed) {
+		if (running) {
+			return;
+		}
+		running = true;
+		worker = new Thread(() -> evolveInBackground(deadlinePassed), "GAagent-evolution");
+		worker.setDaemon(true);
+		worker.start();
+	}
+
+	public synchronized void stop() {
+		running = false;
+		if (worker != null) {
+			worker.interrupt();
+			try {
+				worker.join(1000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			worker = null;
+		}
+	}
+
+	private void evolveInBackground(BooleanSupplier deadlinePassed) {
+		while (running) {
+			if (deadlinePassed.getAsBoolean()) {
+				running = false;
+				return;
+			}
+			lock.lock();
+			try {
+				while (running && turnWaiting) {
+					turnDone.await();
+				}
+				if (!running) {
+					return;
+				}
+				islandModel.evolve(fitnessSource.get());
+				backgroundGenerations++;
+			} catch (InterruptedException e) {
+				//stop() interrupts a parked thread
+				return;
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	//Runs generations until the budget is spent (at least one), then decides on the island with the fittest genome
+	public <T> T decide(long budgetNanos, Function<GeneticAlgorithm, T> decision) {
+		return decide(budgetNanos, null, decision);
+	}
+
+	//As decide, but stops before the budget is spent once the island with the fittest genome is good enough
+	public <T> T decide(long budgetNanos, Predicate<GeneticAlgorithm> goodEnough, Function<GeneticAlgorithm, T> decision) {
+		return decide(budgetNanos, fitnessSource, goodEnough, decision);
+	}
+
+	//As decide, with the turn's generations scored by turnFitness instead of the background fitness source
+	public <T> T decide(long budgetNanos, Supplier<GeneticAlgorithm.FitnessFunction> turnFitness,
+			Predicate<GeneticAlgorithm> goodEnough, Function<GeneticAlgorithm, T> decision) {
+		long deadline = System.nanoTime() + budgetNanos;
+		turnWaiting = true;
+		lock.lock();
+		try {
+			GeneticAlgorithm best;
+			do {
+				islandModel.evolve(turnFitness.get());
+				best = islandModel.getBest();
+			} while (System.nanoTime() < deadline && (goodEnough == null || !goodEnough.test(best)));
+			return decision.apply(best);
+		} finally {
+			turnWaiting = false;
+			turnDone.signalAll();
+			lock.unlock();
+		}
+	}
+
+	public boolean isRunning() {
+		return running;
+	}
+
+	public long getBackgroundGenerations() {
+		return backgroundGenerations;
+	}
+}
@@ -0,0 +1,76 @@
+package project;
+
+public class CombinedOpponentUtility implements OpponentUtility {
+
+	public static final int NASH = 0;
+	public static final int MINIMUM = 1;
+
+	//One compiled table per opponent, combined per genome
+	private final CompiledUtilitySpace[] opponents;
+	private final int mode;
+	private final double exponent;
+
+	public CombinedOpponentUtility(CompiledUtilitySpace[] opponents, int mode) {
+		this.opponents = opponents;
+		this.mode = mode;
+		this.exponent = 1.0 / opponents.length;
+	}
+
+	//Nash product as its geometric mean, so it keeps the scale of a single opponent
+	@Override
+	public double getUtility(int[] genes, int offset) {
+		if (mode == MINIMUM) {
+			double utility = opponents[0].getUtility(genes, offset);
+			for (int n = 1; n < opponents.length; n++) {
+				utility = Math.min(utility, opponents[n].getUtility(genes, offset));
+			}
+			return utility;
+		}
+		double product = 1.0;
+		for (int n = 0; n < opponents.length; n++) {
+			product = product * opponents[n].getUtility(genes, offset);
+		}
+		return Math.pow(product, exponent);
+	}
+
+	@Override
+	public double getMaxUtility() {
+		if (mode == MINIMUM) {
+			double utility = opponents[0].getMaxUtility();
+			for (int n = 1; n < opponents.length; n++) {
+				utility = Math.min(utility, opponents[n].getMaxUtility());
+			}
+			return utility;
+		}
+		double product = 1.0;
+		for (int n = 0; n < opponents.length; n++) {
+			product = product * opponents[n].getMaxUtility();
+		}
+		return Math.pow(product, exponent);
+	}
+
+	@Override
+	public boolean sameAs(OpponentUtility other) {
+		if (!(other instanceof CombinedOpponentUtility)) {
+			return false;
+		}
+		CombinedOpponentUtility combined = (CombinedOpponentUtility) other;
+		if (combined.mode != mode || combined.opponents.length != opponents.length) {
+			return false;
+		}
+		for (int n = 0; n < opponents.length; n++) {
+			if (!opponents[n].sameAs(combined.opponents[n])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public int getOpponentCount() {
+		return opponents.length;
+	}
+
+	public int getMode() {
+		return mode;
+	}
+}
@@ -0,0 +1,131 @@
+package project;
+
+import java.util.Arrays;
+
+import genius.core.issue.IssueDiscrete;
+import genius.core.utility.AdditiveUtilitySpace;
+import genius.core.utility.EvaluatorDiscrete;
+
+public class CompiledUtilitySpace implements OpponentUtility {
+
+	//Flat per-value tables indexed by codec offset + value index
+	private final int issueCount;
+	private final int[] offsets;
+	private final double[] weights;
+	private final double[] values;
+	private final double[] weightedValues;
+
+	public CompiledUtilitySpace(int[] offsets, double[] weights, double[] values) {
+		this.issueCount = offsets.length;
+		this.offsets = offsets;
+		this.weights = weights;
+		this.values = values;
+		weightedValues = new double[values.length];
+		for (int i = 0; i < issueCount; i++) {
+			int end = i + 1 < issueCount ? offsets[i + 1] : values.length;
+			for (int v = offsets[i]; v < end; v++) {
+				weightedValues[v] = weights[i] * values[v];
+			}
+		}
+	}
+
+	//Compiles the normalised evaluations used by getUtility
+	public static CompiledUtilitySpace compile(AdditiveUtilitySpace utilitySpace, GenomeCodec codec) {
+		return compile(utilitySpace, codec, true);
+	}
+
+	//Compiles the raw evaluator values used by the euclidean distance
+	public static CompiledUtilitySpace compileRaw(AdditiveUtilitySpace utilitySpace, GenomeCodec codec) {
+		return compile(utilitySpace, codec, false);
+	}
+
+	private static CompiledUtilitySpace compile(AdditiveUtilitySpace utilitySpace, GenomeCodec codec, boolean normalised) {
+		int issueCount = codec.getIssueCount();
+		int[] offsets = new int[issueCount];
+		double[] weights = new double[issueCount];
+		double[] values = new double[codec.getTotalValueCount()];
+		for (int i = 0; i < issueCount; i++) {
+			IssueDiscrete issueDiscrete = codec.getIssue(i);
+			EvaluatorDiscrete evaluatorDiscrete = (EvaluatorDiscrete) utilitySpace.getEvaluator(issueDiscrete);
+			offsets[i] = codec.getOffset(i);
+			weights[i] = utilitySpace.getWeight(issueDiscrete);
+			for (int v = 0; v < codec.getValueCount(i); v++) {
+				if (normalised) {
+					values[offsets[i] + v] = evaluatorDiscrete.getEvaluation(issueDiscrete.getValue(v));
+				} else {
+					values[offsets[i] + v] = evaluatorDiscrete.getDoubleValue(issueDiscrete.getValue(v));
+				}
+			}
+		}
+		return new CompiledUtilitySpace(offsets, weights, values);
+	}
+
+	@Override
+	public double getUtility(int[] genes, int offset) {
+		double utility = 0.0;
+		for (int i = 0; i < issueCount; i++) {
+			utility = utility + weightedValues[offsets[i] + genes[offset + i]];
+		}
+		return utility;
+	}
+
+	//calculate euclideanDistance between two genomes
+	public double getDistance(int[] genes, int offset, int[] otherGenes, int otherOffset) {
+		double euclideanDistance = 0.0;
+		for (int i = 0; i < issueCount; i++) {
+			double attrValueOwn = values[offsets[i] + genes[offset + i]];
+			double attrValueOpp = values[offsets[i] + otherGenes[otherOffset + i]];
+			if (attrValueOwn != attrValueOpp) {
+				double distance = weights[i] * (attrValueOwn - attrValueOpp);
+				euclideanDistance = euclideanDistance + (distance * distance);
+			}
+		}
+		return Math.sqrt(euclideanDistance);
+	}
+
+	//Same offsets, weights and values
+	@Override
+	public boolean sameAs(OpponentUtility other) {
+		if (!(other instanceof CompiledUtilitySpace)) {
+			return false;
+		}
+		CompiledUtilitySpace space = (CompiledUtilitySpace) other;
+		return Arrays.equals(offsets, space.offsets) && Arrays.equals(weights, space.weights)
+				&& Arrays.equals(values, space.values);
+	}
+
+	//Highest reachable utility: best value of every issue
+	@Override
+	public double getMaxUtility() {
+		double utility = 0.0;
+		for (int i = 0; i < issueCount; i++) {
+			int end = i + 1 < issueCount ? offsets[i + 1] : weightedValues.length;
+			double best = weightedValues[offsets[i]];
+			for (int v = offsets[i] + 1; v < end; v++) {
+				best = Math.max(best, weightedValues[v]);
+			}
+			utility = utility + best;
+		}
+		return utility;
+	}
+
+	public int getIssueCount() {
+		return issueCount;
+	}
+
+	public int[] getOffsets() {
+		return offsets;
+	}
+
+	public double[] getWeights() {
+		return weights;
+	}
+
+	public double[] getValues() {
+		return values;
+	}
+
+	public double[] getWeightedValues() {
+		return weightedValues;
+	}
+}
@@ -0,0 +1,179 @@
+package project;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import genius.core.Domain;
+import genius.core.utility.AdditiveUtilitySpace;
+
+public class DomainCache {
+
+	//Immutable per-domain data shared by all sessions of a JVM: the codec's issue/value tables by domain
+	//fingerprint and the compiled tables of the estimated space by domain and ranking fingerprint.
+	//Each value is built once; sessions asking for a value that is being built wait for that build instead
+	//of starting their own. Finished values are softly held, so the GC drops them under memory pressure
+	//and the next session rebuilds them. Sessions keep their mutable state (population, opponent models,
+	//and their own Genius utility space built from the shared tables).
+	public static final DomainCache SHARED = new DomainCache();
+
+	private final Table<GenomeCodec> codecs = new Table<GenomeCodec>();
+	private final Table<Estimate> estimates = new Table<Estimate>();
+
+	//-Dgaagent.sharedDomains=true; null when unset
+	public static DomainCache fromSystemProperties() {
+		return Boolean.getBoolean("gaagent.sharedDomains") ? SHARED : null;
+	}
+
+	public static class Estimate {
+		private final CompiledUtilitySpace ownUtilitySpace;
+		private final CompiledUtilitySpace ownDistanceSpace;
+		private final int[] maxUtilityGenes;
+		private final OutcomeIndex outcomeIndex;
+
+		Estimate(CompiledUtilitySpace ownUtilitySpace, CompiledUtilitySpace ownDistanceSpace, int[] maxUtilityGenes,
+				OutcomeIndex outcomeIndex) {
+			this.ownUtilitySpace = ownUtilitySpace;
+			this.ownDistanceSpace = ownDistanceSpace;
+			this.maxUtilityGenes = maxUtilityGenes;
+			this.outcomeIndex = outcomeIndex;
+		}
+
+		//Compiles an estimated space, which is not kept; the outcome index is left out on domains above indexMaxOutcomes
+		public static Estimate build(GenomeCodec codec, AdditiveUtilitySpace utilitySpace, int indexMaxOutcomes) {
+			CompiledUtilitySpace ownUtilitySpace = CompiledUtilitySpace.compile(utilitySpace, codec);
+			int[] maxUtilityGenes = null;
+			try {
+				maxUtilityGenes = codec.encode(utilitySpace.getMaxUtilityBid());
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+			return new Estimate(ownUtilitySpace, CompiledUtilitySpace.compileRaw(utilitySpace, codec), maxUtilityGenes,
+					OutcomeIndex.build(codec, ownUtilitySpace, indexMaxOutcomes));
+		}
+
+		//A new copy of the estimated space for one session, from the raw weights and evaluations
+		public AdditiveUtilitySpace newUtilitySpace(GenomeCodec codec) {
+			return SnapshotStore.toUtilitySpace(codec, ownDistanceSpace.getWeights(), ownDistanceSpace.getValues());
+		}
+
+		public CompiledUtilitySpace getOwnUtilitySpace() {
+			return ownUtilitySpace;
+		}
+
+		public CompiledUtilitySpace getOwnDistanceSpace() {
+			return ownDistanceSpace;
+		}
+
+		//null if the max-utility bid could not be found
+		public int[] getMaxUtilityGenes() {
+			return maxUtilityGenes;
+		}
+
+		public OutcomeIndex getOutcomeIndex() {
+			return outcomeIndex;
+		}
+	}
+
+	//Codec of any domain with the same fingerprint; its bids are decoded against the first copy loaded
+	public GenomeCodec getCodec(final Domain domain) {
+		return codecs.get(SnapshotStore.fingerprint(domain), new Supplier<GenomeCodec>() {
+			@Override
+			public GenomeCodec get() {
+				return new GenomeCodec(domain);
+			}
+		});
+	}
+
+	//Fingerprint as in SnapshotStore.fingerprint(codec, ranking)
+	public Estimate getEstimate(long fingerprint, Supplier<Estimate> builder) {
+		return estimates.get(fingerprint, builder);
+	}
+
+	public long getBuildCount() {
+		return codecs.builds.get() + estimates.builds.get();
+	}
+
+	public long getHitCount() {
+		return codecs.hits.get() + estimates.hits.get();
+	}
+
+	public void clear() {
+		codecs.values.clear();
+		estimates.values.clear();
+	}
+
+	//Finished values by fingerprint plus the builds in flight
+	private static class Table<T> {
+		private final ConcurrentHashMap<Long, Cached<T>> values = new ConcurrentHashMap<Long, Cached<T>>();
+		private final ConcurrentHashMap<Long, CompletableFuture<T>> building = new ConcurrentHashMap<Long, CompletableFuture<T>>();
+		private final ReferenceQueue<T> cleared = new ReferenceQueue<T>();
+		private final AtomicLong builds = new AtomicLong();
+		private final AtomicLong hits = new AtomicLong();
+
+		T get(long fingerprint, Supplier<T> builder) {
+			expunge();
+			Long key = fingerprint;
+			T value = lookup(key);
+			if (value != null) {
+				hits.incrementAndGet();
+				return value;
+			}
+			CompletableFuture<T> build = new CompletableFuture<T>();
+			CompletableFuture<T> running = building.putIfAbsent(key, build);
+			if (running != null) {
+				try {
+					value = running.join();
+					hits.incrementAndGet();
+					return value;
+				} catch (CompletionException e) {
+					//the other build failed, this session tries on its own
+					return builder.get();
+				}
+			}
+			try {
+				//another build may have finished between the lookup and the claim
+				value = lookup(key);
+				if (value == null) {
+					value = builder.get();
+					values.put(key, new Cached<T>(key, value, cleared));
+					builds.incrementAndGet();
+				}
+				build.complete(value);
+				return value;
+			} catch (RuntimeException | Error e) {
+				build.completeExceptionally(e);
+				throw e;
+			} finally {
+				building.remove(key, build);
+			}
+		}
+
+		private T lookup(Long key) {
+			Cached<T> cached = values.get(key);
+			return cached == null ? null : cached.get();
+		}
+
+		//Drops the entries whose values the GC has cleared
+		@SuppressWarnings("unchecked")
+		private void expunge() {
+			Cached<T> cached;
+			while ((cached = (Cached<T>) cleared.poll()) != null) {
+				values.remove(cached.key, cached);
+			}
+		}
+	}
+
+	private static class Cached<T> extends SoftReference<T> {
+		private final Long key;
+
+		Cached(Long key, T value, ReferenceQueue<T> queue) {
+			super(value, queue);
+			this.key = key;
+		}
+	}
+}
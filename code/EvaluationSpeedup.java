@@ -0,0 +1,92 @@
+package project;
+
+import java.util.Random;
+
+public class EvaluationSpeedup {
+
+	//Reports per-row, batch and fork-join evaluation time on synthetic populations
+	//usage: EvaluationSpeedup [issues] [values] [seed]
+	public static void main(String[] args) {
+		int issueCount = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+		int valueCount = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+		long seed = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+		Random random = new Random(seed);
+
+		FitnessModel fitnessModel = new FitnessModel(randomSpace(issueCount, valueCount, random),
+				randomSpace(issueCount, valueCount, random), randomSpace(issueCount, valueCount, random), 1.0, 0.5);
+		int[] opponentGenes = randomGenes(issueCount, valueCount, random);
+		GeneticAlgorithm.FitnessFunction fitnessFunction = fitnessModel.against(opponentGenes, 0.7);
+		//the same function without its batch interface, scored one row per call
+		GeneticAlgorithm.FitnessFunction rowFunction = fitnessFunction::getFitness;
+
+		FitnessEvaluator serial = new FitnessEvaluator();
+		FitnessEvaluator parallel = FitnessEvaluator.parallel();
+		System.out.println("issues=" + issueCount + " values=" + valueCount + " threads=" + Runtime.getRuntime().availableProcessors());
+		System.out.println("population\trows(ms)\tbatch(ms)\tparallel(ms)\tbatch speed-up\tparallel speed-up\tidentical");
+		for (int size : new int[] { 1000, 10000, 100000 }) {
+			GenomePopulation rowPopulation = randomPopulation(issueCount, valueCount, size, new Random(seed));
+			GenomePopulation serialPopulation = randomPopulation(issueCount, valueCount, size, new Random(seed));
+			GenomePopulation parallelPopulation = randomPopulation(issueCount, valueCount, size, new Random(seed));
+			double rowTime = time(serial, rowPopulation, rowFunction);
+			double serialTime = time(serial, serialPopulation, fitnessFunction);
+			double parallelTime = time(parallel, parallelPopulation, fitnessFunction);
+
+			boolean identical = true;
+			for (int row = 0; row < serialPopulation.size(); row++) {
+				long bits = Double.doubleToLongBits(rowPopulation.getFitness(row));
+				if (bits != Double.doubleToLongBits(serialPopulation.getFitness(row))
+						|| bits != Double.doubleToLongBits(parallelPopulation.getFitness(row))) {
+					identical = false;
+				}
+			}
+			System.out.println(String.format("%d\t%.3f\t%.3f\t%.3f\t%.2fx\t%.2fx\t%s", size, rowTime, serialTime, parallelTime,
+					rowTime / serialTime, serialTime / parallelTime, identical));
+		}
+	}
+
+	//best of repeated runs after warm-up, in milliseconds
+	private static double time(FitnessEvaluator evaluator, GenomePopulation population, GeneticAlgorithm.FitnessFunction fitnessFunction) {
+		for (int i = 0; i < 20; i++) {
+			evaluator.evaluate(population, fitnessFunction, false);
+		}
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < 20; i++) {
+			long start = System.nanoTime();
+			evaluator.evaluate(population, fitnessFunction, false);
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		return best / 1e6;
+	}
+
+	static CompiledUtilitySpace randomSpace(int issueCount, int valueCount, Random random) {
+		int[] offsets = new int[issueCount];
+		double[] weights = new double[issueCount];
+		double[] values = new double[issueCount * valueCount];
+		for (int i = 0; i < issueCount; i++) {
+			offsets[i] = i * valueCount;
+			weights[i] = 1.0 / issueCount;
+			for (int v = 0; v < valueCount; v++) {
+				values[offsets[i] + v] = random.nextDouble();
+			}
+		}
+		return new CompiledUtilitySpace(offsets, weights, values);
+	}
+
+	static int[] randomGenes(int issueCount, int valueCount, Random random) {
+		int[] genes = new int[issueCount];
+		for (int i = 0; i < issueCount; i++) {
+			genes[i] = random.nextInt(valueCount);
+		}
+		return genes;
+	}
+
+	static GenomePopulation randomPopulation(int issueCount, int valueCount, int size, Random random) {
+		GenomePopulation population = new GenomePopulation(issueCount, size);
+		int attempts = 0;
+		while (population.size() < size && attempts < size * 10) {
+			population.add(randomGenes(issueCount, valueCount, random), 0);
+			attempts++;
+		}
+		return population;
+	}
+}
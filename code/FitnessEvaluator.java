@@ -0,0 +1,103 @@
+package project;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class FitnessEvaluator {
+
+	//Rows per fork-join leaf; smaller populations are evaluated serially
+	private static final int SPLIT_THRESHOLD = 512;
+
+	private final ForkJoinPool pool;
+	//Per-thread block of rows for the batch functions, so parallel evaluation shares no buffer
+	private static final ThreadLocal<int[]> BLOCK_ROWS = ThreadLocal.withInitial(() -> new int[FitnessKernel.BLOCK]);
+
+	//Serial evaluation
+	public FitnessEvaluator() {
+		this(null);
+	}
+
+	public FitnessEvaluator(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	public static FitnessEvaluator parallel() {
+		return new FitnessEvaluator(ForkJoinPool.commonPool());
+	}
+
+	public boolean isParallel() {
+		return pool != null;
+	}
+
+	//Rows are independent, so serial and parallel runs give identical fitness
+	public void evaluate(GenomePopulation population, GeneticAlgorithm.FitnessFunction fitnessFunction, boolean onlyMissing) {
+		int size = population.size();
+		if (pool == null || size < SPLIT_THRESHOLD * 2) {
+			evaluate(population, fitnessFunction, onlyMissing, 0, size);
+		} else {
+			pool.invoke(new EvaluationTask(population, fitnessFunction, onlyMissing, 0, size));
+		}
+	}
+
+	private static void evaluate(GenomePopulation population, GeneticAlgorithm.FitnessFunction fitnessFunction,
+			boolean onlyMissing, int start, int end) {
+		if (fitnessFunction instanceof GeneticAlgorithm.BatchFitnessFunction) {
+			evaluateBatch(population, (GeneticAlgorithm.BatchFitnessFunction) fitnessFunction, onlyMissing, start, end);
+			return;
+		}
+		for (int row = start; row < end; row++) {
+			if (!onlyMissing || !population.isEvaluated(row)) {
+				population.setFitness(row, fitnessFunction.getFitness(population, row));
+			}
+		}
+	}
+
+	//Rows to evaluate are gathered into blocks for the batch function
+	private static void evaluateBatch(GenomePopulation population, GeneticAlgorithm.BatchFitnessFunction fitnessFunction,
+			boolean onlyMissing, int start, int end) {
+		int[] rows = BLOCK_ROWS.get();
+		int count = 0;
+		for (int row = start; row < end; row++) {
+			if (onlyMissing && population.isEvaluated(row)) {
+				continue;
+			}
+			rows[count++] = row;
+			if (count == rows.length) {
+				fitnessFunction.evaluate(population, rows, count);
+				count = 0;
+			}
+		}
+		if (count > 0) {
+			fitnessFunction.evaluate(population, rows, count);
+		}
+	}
+
+	private static class EvaluationTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final GenomePopulation population;
+		private final GeneticAlgorithm.FitnessFunction fitnessFunction;
+		private final boolean onlyMissing;
+		private final int start;
+		private final int end;
+
+		EvaluationTask(GenomePopulation population, GeneticAlgorithm.FitnessFunction fitnessFunction,
+				boolean onlyMissing, int start, int end) {
+			this.population = population;
+			this.fitnessFunction = fitnessFunction;
+			this.onlyMissing = onlyMissing;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - start <= SPLIT_THRESHOLD) {
+				evaluate(population, fitnessFunction, onlyMissing, start, end);
+				return;
+			}
+			int middle = (start + end) >>> 1;
+			invokeAll(new EvaluationTask(population, fitnessFunction, onlyMissing, start, middle),
+					new EvaluationTask(population, fitnessFunction, onlyMissing, middle, end));
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package project;
+
+public class FitnessKernel {
+
+	//Rows scored per call; the block's offsets and results stay in L1
+	public static final int BLOCK = 64;
+
+	//One fused row-major pass over flat tables: each gene of a row is read once and adds to the row's own
+	//utility, distance and opponent utility together, instead of three virtual call chains per row.
+	//Sums run in the same issue order as CompiledUtilitySpace, so results are bit-identical to the per-row path.
+	private final int issueCount;
+	private final int[] offsets;
+	private final double[] ownWeightedValues;
+	private final int[] distanceOffsets;
+	private final double[] distanceWeights;
+	private final double[] distanceValues;
+	private final double[] opponentWeightedValues;
+	private final OpponentUtility opponentUtilitySpace;
+
+	public FitnessKernel(CompiledUtilitySpace ownUtilitySpace, CompiledUtilitySpace ownDistanceSpace,
+			OpponentUtility opponentUtilitySpace) {
+		this.issueCount = ownUtilitySpace.getIssueCount();
+		this.offsets = ownUtilitySpace.getOffsets();
+		this.ownWeightedValues = ownUtilitySpace.getWeightedValues();
+		this.distanceOffsets = ownDistanceSpace.getOffsets();
+		this.distanceWeights = ownDistanceSpace.getWeights();
+		this.distanceValues = ownDistanceSpace.getValues();
+		//combined opponents are not one table and fall back to per-row calls
+		this.opponentWeightedValues = opponentUtilitySpace instanceof CompiledUtilitySpace
+				? ((CompiledUtilitySpace) opponentUtilitySpace).getWeightedValues()
+				: null;
+		this.opponentUtilitySpace = opponentUtilitySpace;
+	}
+
+	//Own utility, distance to the opponent genes and opponent utility of up to BLOCK rows given by their gene offsets
+	public void evaluate(int[] genes, int[] rowOffsets, int count, int[] opponentGenes, double[] utility, double[] distance,
+			double[] opponentUtility) {
+		if (opponentWeightedValues == null) {
+			for (int k = 0; k < count; k++) {
+				opponentUtility[k] = opponentUtilitySpace.getUtility(genes, rowOffsets[k]);
+			}
+		}
+		for (int k = 0; k < count; k++) {
+			int offset = rowOffsets[k];
+			double rowUtility = 0.0;
+			double rowDistance = 0.0;
+			double rowOpponentUtility = 0.0;
+			for (int i = 0; i < issueCount; i++) {
+				int gene = genes[offset + i];
+				rowUtility = rowUtility + ownWeightedValues[offsets[i] + gene];
+				//equal values add an exact zero, so no branch is needed
+				double difference = distanceWeights[i]
+						* (distanceValues[distanceOffsets[i] + gene] - distanceValues[distanceOffsets[i] + opponentGenes[i]]);
+				rowDistance = rowDistance + difference * difference;
+				if (opponentWeightedValues != null) {
+					rowOpponentUtility = rowOpponentUtility + opponentWeightedValues[offsets[i] + gene];
+				}
+			}
+			utility[k] = rowUtility;
+			distance[k] = Math.sqrt(rowDistance);
+			if (opponentWeightedValues != null) {
+				opponentUtility[k] = rowOpponentUtility;
+			}
+		}
+	}
+}
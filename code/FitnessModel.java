@@ -0,0 +1,230 @@
+package project;
+
+import java.util.Arrays;
+
+public class FitnessModel {
+
+	//Fitness formula over compiled tables, read-only during evaluation
+	private final CompiledUtilitySpace ownUtilitySpace;
+	private final CompiledUtilitySpace ownDistanceSpace;
+	private final double bidMaxUtil;
+	private final double alpha;
+
+	//Inputs of the cached terms; versions start at 1 so 0 marks a missing term
+	private final int ownVersion;
+	private volatile Versioned<int[]> opponentOffer = new Versioned<int[]>(null, 1);
+	private volatile Versioned<OpponentUtility> opponentTables;
+	//kernel over the own spaces and the opponent tables it was built for
+	private volatile CachedKernel kernel;
+
+	public FitnessModel(CompiledUtilitySpace ownUtilitySpace, CompiledUtilitySpace ownDistanceSpace,
+			OpponentUtility opponentUtilitySpace, double bidMaxUtil, double alpha) {
+		this(ownUtilitySpace, ownDistanceSpace, opponentUtilitySpace, bidMaxUtil, alpha, 1);
+	}
+
+	private FitnessModel(CompiledUtilitySpace ownUtilitySpace, CompiledUtilitySpace ownDistanceSpace,
+			OpponentUtility opponentUtilitySpace, double bidMaxUtil, double alpha, int ownVersion) {
+		this.ownUtilitySpace = ownUtilitySpace;
+		this.ownDistanceSpace = ownDistanceSpace;
+		this.opponentTables = new Versioned<OpponentUtility>(opponentUtilitySpace, 1);
+		this.bidMaxUtil = bidMaxUtil;
+		this.alpha = alpha;
+		this.ownVersion = ownVersion;
+	}
+
+	//Same opponent state over a re-estimated own space; cached own terms go stale
+	public FitnessModel withOwnSpace(CompiledUtilitySpace ownUtilitySpace, CompiledUtilitySpace ownDistanceSpace,
+			double bidMaxUtil) {
+		FitnessModel model = new FitnessModel(ownUtilitySpace, ownDistanceSpace, null, bidMaxUtil, alpha, ownVersion + 1);
+		//distance terms depend on the own space too
+		model.opponentOffer = new Versioned<int[]>(opponentOffer.value, opponentOffer.version + 1);
+		model.opponentTables = opponentTables;
+		return model;
+	}
+
+	public double getFitness(int[] genes, int offset, int[] opponentGenes, double TP) {
+		//calculate euclideanDistance
+		double euclideanDistance = ownDistanceSpace.getDistance(genes, offset, opponentGenes, 0);
+		double utility = ownUtilitySpace.getUtility(genes, offset);
+		return combine(utility, euclideanDistance, opponentTables.value.getUtility(genes, offset), TP);
+	}
+
+	//Highest fitness any bid of this own utility can reach: zero distance, best opponent utility
+	public double getFitnessBound(double utility, double maxOpponentUtility, double TP) {
+		return combine(utility, 0.0, maxOpponentUtility, TP);
+	}
+
+	private double combine(double utility, double euclideanDistance, double opponentUtility, double TP) {
+		double constant = alpha * TP;
+		double ownUtility = utility / bidMaxUtil;
+		double nashPoint = utility * opponentUtility;
+		double fitnessValue = constant * ownUtility + (1 - constant) * ((1 - euclideanDistance)) + nashPoint;
+		return fitnessValue;
+	}
+
+	//Fitness against a fixed opponent offer and time pressure, without caching
+	public GeneticAlgorithm.BatchFitnessFunction against(final int[] opponentGenes, final double TP) {
+		final FitnessKernel kernel = getKernel(opponentTables);
+		return new GeneticAlgorithm.BatchFitnessFunction() {
+			@Override
+			public double getFitness(GenomePopulation population, int row) {
+				return FitnessModel.this.getFitness(population.getGenes(), population.getRowOffset(row), opponentGenes, TP);
+			}
+
+			@Override
+			public void evaluate(GenomePopulation population, int[] rows, int count) {
+				BatchTerms terms = BATCH_TERMS.get();
+				for (int k = 0; k < count; k++) {
+					terms.rowOffsets[k] = population.getRowOffset(rows[k]);
+				}
+				kernel.evaluate(population.getGenes(), terms.rowOffsets, count, opponentGenes, terms.utility, terms.distance,
+						terms.opponentUtility);
+				for (int k = 0; k < count; k++) {
+					population.setFitness(rows[k], combine(terms.utility[k], terms.distance[k], terms.opponentUtility[k], TP));
+				}
+			}
+		};
+	}
+
+	//Fitness against the current opponent offer, recomputing only stale cached terms
+	public GeneticAlgorithm.BatchFitnessFunction cached(final double TP) {
+		//one read each, so an input and its version always match
+		final Versioned<int[]> opponentOffer = this.opponentOffer;
+		final int[] opponentGenes = opponentOffer.value;
+		final int offerVersion = opponentOffer.version;
+		final Versioned<OpponentUtility> opponentTables = this.opponentTables;
+		final OpponentUtility opponentUtilitySpace = opponentTables.value;
+		final int opponentVersion = opponentTables.version;
+		final FitnessKernel kernel = getKernel(opponentTables);
+		return new GeneticAlgorithm.BatchFitnessFunction() {
+			@Override
+			public double getFitness(GenomePopulation population, int row) {
+				int[] genes = population.getGenes();
+				int offset = population.getRowOffset(row);
+				if (population.getUtilityVersion(row) != ownVersion) {
+					population.setUtility(row, ownUtilitySpace.getUtility(genes, offset), ownVersion);
+				}
+				if (population.getDistanceVersion(row) != offerVersion) {
+					population.setDistance(row, ownDistanceSpace.getDistance(genes, offset, opponentGenes, 0), offerVersion);
+				}
+				if (population.getOpponentVersion(row) != opponentVersion) {
+					population.setOpponentUtility(row, opponentUtilitySpace.getUtility(genes, offset), opponentVersion);
+				}
+				return combine(population.getUtility(row), population.getDistance(row), population.getOpponentUtility(row), TP);
+			}
+
+			//rows with any stale term get all three from the kernel, which computes them exactly as above
+			@Override
+			public void evaluate(GenomePopulation population, int[] rows, int count) {
+				BatchTerms terms = BATCH_TERMS.get();
+				int stale = 0;
+				for (int k = 0; k < count; k++) {
+					int row = rows[k];
+					if (population.getUtilityVersion(row) != ownVersion || population.getDistanceVersion(row) != offerVersion
+							|| population.getOpponentVersion(row) != opponentVersion) {
+						terms.rows[stale] = row;
+						terms.rowOffsets[stale++] = population.getRowOffset(row);
+					}
+				}
+				if (stale > 0) {
+					kernel.evaluate(population.getGenes(), terms.rowOffsets, stale, opponentGenes, terms.utility, terms.distance,
+							terms.opponentUtility);
+					for (int k = 0; k < stale; k++) {
+						int row = terms.rows[k];
+						population.setUtility(row, terms.utility[k], ownVersion);
+						population.setDistance(row, terms.distance[k], offerVersion);
+						population.setOpponentUtility(row, terms.opponentUtility[k], opponentVersion);
+					}
+				}
+				for (int k = 0; k < count; k++) {
+					int row = rows[k];
+					population.setFitness(row, combine(population.getUtility(row), population.getDistance(row),
+							population.getOpponentUtility(row), TP));
+				}
+			}
+		};
+	}
+
+	//Built once per opponent tables version rather than per fitness function; a race only builds it twice
+	private FitnessKernel getKernel(Versioned<OpponentUtility> tables) {
+		CachedKernel cached = kernel;
+		if (cached == null || cached.tables != tables) {
+			cached = new CachedKernel(tables, new FitnessKernel(ownUtilitySpace, ownDistanceSpace, tables.value));
+			kernel = cached;
+		}
+		return cached.kernel;
+	}
+
+	private static class CachedKernel {
+		private final Versioned<OpponentUtility> tables;
+		private final FitnessKernel kernel;
+
+		CachedKernel(Versioned<OpponentUtility> tables, FitnessKernel kernel) {
+			this.tables = tables;
+			this.kernel = kernel;
+		}
+	}
+
+	//Per-thread scratch of the batch calls, so parallel evaluation shares no buffers
+	private static final ThreadLocal<BatchTerms> BATCH_TERMS = ThreadLocal.withInitial(BatchTerms::new);
+
+	private static class BatchTerms {
+		private final int[] rows = new int[FitnessKernel.BLOCK];
+		private final int[] rowOffsets = new int[FitnessKernel.BLOCK];
+		private final double[] utility = new double[FitnessKernel.BLOCK];
+		private final double[] distance = new double[FitnessKernel.BLOCK];
+		private final double[] opponentUtility = new double[FitnessKernel.BLOCK];
+	}
+
+	//Distance terms go stale only when the offer actually differs
+	public void setOpponentOffer(int[] genes) {
+		Versioned<int[]> current = opponentOffer;
+		if (!Arrays.equals(genes, current.value)) {
+			opponentOffer = new Versioned<int[]>(genes, current.version + 1);
+		}
+	}
+
+	//Nash terms go stale only when the opponent tables actually differ
+	public void setOpponentUtilitySpace(OpponentUtility opponentUtilitySpace) {
+		Versioned<OpponentUtility> current = opponentTables;
+		if (!current.value.sameAs(opponentUtilitySpace)) {
+			opponentTables = new Versioned<OpponentUtility>(opponentUtilitySpace, current.version + 1);
+		}
+	}
+
+	//A cached-term input published together with its version, as the anytime worker reads them while the
+	//agent thread replaces them
+	private static class Versioned<T> {
+		private final T value;
+		private final int version;
+
+		Versioned(T value, int version) {
+			this.value = value;
+			this.version = version;
+		}
+	}
+
+	public double getUtility(int[] genes, int offset) {
+		return ownUtilitySpace.getUtility(genes, offset);
+	}
+
+	public CompiledUtilitySpace getOwnUtilitySpace() {
+		return ownUtilitySpace;
+	}
+
+	public CompiledUtilitySpace getOwnDistanceSpace() {
+		return ownDistanceSpace;
+	}
+
+	public OpponentUtility getOpponentUtilitySpace() {
+		return opponentTables.value;
+	}
+
+	public int[] getOpponentGenes() {
+		return opponentOffer.value;
+	}
+
+	public double getBidMaxUtil() {
+		return bidMaxUtil;
+	}
+}
@@ -1,54 +1,97 @@
 package project;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map.Entry;
+import java.util.Map;
 import java.util.Random;
+import java.util.function.Predicate;
 import genius.core.AgentID;
 import genius.core.Bid;
 import genius.core.Domain;
 import genius.core.actions.Accept;
 import genius.core.actions.Action;
 import genius.core.actions.Offer;
-import genius.core.issue.Issue;
-import genius.core.issue.IssueDiscrete;
-import genius.core.issue.Value;
-import genius.core.issue.ValueDiscrete;
 import genius.core.parties.AbstractNegotiationParty;
 import genius.core.parties.NegotiationInfo;
+import genius.core.timeline.DiscreteTimeline;
+import genius.core.timeline.TimeLineInfo;
 import genius.core.uncertainty.BidRanking;
 import genius.core.uncertainty.UserModel;
 import genius.core.utility.AbstractUtilitySpace;
 import genius.core.utility.AdditiveUtilitySpace;
-import genius.core.utility.EvaluatorDiscrete;
 import project.LinearProgrammingUtilitySpaceEstimator;
-import project.JohnnyOpponentModel;
 
 
 public class GAagent extends AbstractNegotiationParty {
     
-	private double bidMaxUtil;
-	//To keep preference
-	private List<Bid> historySendingOffers = new ArrayList<Bid>();
+	//To keep preference, bounded (-Dgaagent.historySize=n -Dgaagent.historyBloomBits=n)
+	private OfferHistory historySendingOffers;
+	private OfferHistory historyReceivedOffers;
 	private int randomBid = 3;
     private Bid lastReceivedOffer;
-    private List<Issue> issues;
+    private int[] lastReceivedGenes;
     //For Opponent Model
-  	private JohnnyOpponentModel opponentModel;
+  	//one model per sender, combined as Nash product or minimum (-Dgaagent.opponents=nash|min)
+  	private OpponentModels opponentModels;
+  	//Compiled lookup tables for fitness, replaced whole when the estimate changes
+  	private volatile FitnessModel fitnessModel;
   	
 	//For User uncertainly
 	private UserModel userModel;
+	private LinearProgrammingUtilitySpaceEstimator estimator;
+	private int estimatedRankingSize;
 	//Genetic algorithm parameter
-	private HashMap<Bid,Double> popList = new HashMap<Bid,Double>();
+	private GenomeCodec genomeCodec;
+	private IslandModel islandModel;
+	private AnytimeEvolution evolution;
 	
     private double alpha = 0.5;
     private double beta = 0.8;
-	private int popSize = 100; // population size
-	private int	selectionPool = 80; // mating pool size
+    private double concessionBeta = 0.2;
+	private int popSize = Integer.getInteger("gaagent.popSize", 100); // population size (-Dgaagent.popSize=n)
+	private int	selectionPool = popSize * 4 / 5; // mating pool size
 	private double elitism = 0.1;
 	private double crossoverRate = 0.6;
 	private double mutationRate = 0.05;
+	//Scalar fitness or NSGA-II over own utility, closeness and Nash product (-Dgaagent.selection=scalar|nsga2)
+	private int selection = GeneticAlgorithm.getSelection(System.getProperty("gaagent.selection"));
+	//Island-model GA: n populations of popSize evolved in parallel that exchange their elite
+	//(-Dgaagent.islands=n, 0 = one per core, -Dgaagent.migrationInterval=n -Dgaagent.migrants=n -Dgaagent.migrationTopology=ring|all)
+	private int islandCount = Integer.getInteger("gaagent.islands", 1);
+	private int migrationInterval = Integer.getInteger("gaagent.migrationInterval", 5);
+	private int migrants = Integer.getInteger("gaagent.migrants", 5);
+	private int migrationTopology = IslandModel.getTopology(System.getProperty("gaagent.migrationTopology"));
+	//Opt-in parallel evaluation and fixed seed (-Dgaagent.parallel=true -Dgaagent.seed=n)
+	private boolean parallelEvaluation = Boolean.getBoolean("gaagent.parallel");
+	//Timers, counters and trace output (-Dgaagent.metrics=off|summary|trace)
+	private final AgentMetrics metrics = AgentMetrics.fromSystemProperties();
+	//Opt-in background evolution with a per-turn budget (-Dgaagent.anytime=true -Dgaagent.turnBudgetMs=n)
+	private boolean anytimeEvolution = Boolean.getBoolean("gaagent.anytime");
+	private long turnBudgetMs = Long.getLong("gaagent.turnBudgetMs", 20);
+	//Exact search over all outcomes replaces the GA on domains up to this size (-Dgaagent.indexMaxOutcomes=n, 0 = off)
+	private int indexMaxOutcomes = Integer.getInteger("gaagent.indexMaxOutcomes", 1 << 15);
+	private volatile OutcomeIndex outcomeIndex;
+	private Random indexRandom;
+	private int[] indexPositions = new int[randomBid];
+	private double[] indexScores = new double[randomBid];
+	//Opt-in skyline of non-dominated bids seen by the GA, re-injected as immigrants (-Dgaagent.frontier=true)
+	private boolean useFrontier = Boolean.getBoolean("gaagent.frontier");
+	private ParetoFrontier paretoFrontier;
+	private int[] immigrantGenes;
+	private int immigrantCount;
+	//Binary session log for offline replay (-Dgaagent.record=directory), see SessionReplay
+	private SessionRecorder recorder;
+	//Warm start from the estimate and population of an earlier session on the same domain and ranking (-Dgaagent.snapshots=directory)
+	private final SnapshotStore snapshotStore = SnapshotStore.fromSystemProperties();
+	private SnapshotStore.Snapshot snapshot;
+	//Codec, estimate and compiled tables shared with the other sessions on the same domain and ranking (-Dgaagent.sharedDomains=true)
+	private final DomainCache domainCache = DomainCache.fromSystemProperties();
+	private DomainCache.Estimate sharedEstimate;
+	private Bid maxUtilityBid;
+	//Accepts offers above a precomputed time-dependent bar before any search, which also ends the GA's
+	//turn budget early once it holds a bid above the bar (-Dgaagent.acceptanceFloor=f, unset = off)
+	private AcceptanceCurve acceptanceCurve;
 
     @Override
     public void init(NegotiationInfo info) {
@@ -58,8 +101,6 @@ public class GAagent extends AbstractNegotiationParty {
     	AbstractUtilitySpace utilitySpace = info.getUtilitySpace();
     	AdditiveUtilitySpace additiveUtilitySpace = (AdditiveUtilitySpace) utilitySpace;
     	
-    	issues = additiveUtilitySpace.getDomain().getIssues();
-    	
     	BidRanking bidRanking = userModel.getBidRanking();
     	int bidRankingSize = bidRanking.getSize();
     	List<Bid> bidList = new ArrayList<Bid>();
@@ -68,21 +109,141 @@ public class GAagent extends AbstractNegotiationParty {
     	} else {
     		bidList = bidRanking.getBidOrder();
     	}
-    	for(int i=0;i<bidList.size();i++) {
-    		popList.put(bidList.get(i), 0.0);
+    	if(genomeCodec == null) {
+    		genomeCodec = new GenomeCodec(additiveUtilitySpace.getDomain());
+    	}
+    	long seed = Long.getLong("gaagent.seed", info.getRandomSeed());
+    	islandModel = IslandModel.create(genomeCodec, islandCount > 0 ? islandCount : Runtime.getRuntime().availableProcessors(),
+    			popSize, selectionPool, elitism, crossoverRate, mutationRate, selection, seed, migrationInterval, migrants,
+    			migrationTopology);
+    	indexRandom = new Random(seed);
+    	if(parallelEvaluation) {
+    		islandModel.setFitnessEvaluator(FitnessEvaluator.parallel());
+    	}
+    	islandModel.setMetrics(metrics);
+    	if(snapshot != null) {
+    		islandModel.seed(snapshot.getPopulationGenes(), snapshot.getPopulationSize());
+    		maxUtilityBid = genomeCodec.decode(snapshot.getMaxUtilityGenes(), 0);
+    		snapshot = null;
+    	} else {
+    		islandModel.seed(bidList);
     	}
+    	if(sharedEstimate != null && maxUtilityBid == null && sharedEstimate.getMaxUtilityGenes() != null) {
+    		maxUtilityBid = genomeCodec.decode(sharedEstimate.getMaxUtilityGenes(), 0);
+    	}
+    	evolution = new AnytimeEvolution(islandModel, () -> fitnessModel.cached(getTimePressure()));
+    	int historySize = Integer.getInteger("gaagent.historySize", 1 << 16);
+    	int historyBloomBits = Integer.getInteger("gaagent.historyBloomBits", 0);
+    	//the filter speeds up the accept check on sent offers; received offers are never looked up
+    	historySendingOffers = new OfferHistory(genomeCodec, historySize, historyBloomBits);
+    	historyReceivedOffers = new OfferHistory(genomeCodec, historySize);
     	
-    	bidMaxUtil = getUtility(getMaxUtilityBid());
+    	double bidMaxUtil = getUtility(getMaxUtilityBid());
+    	AdditiveUtilitySpace estimatedUtilitySpace = (AdditiveUtilitySpace) this.utilitySpace;
+    	acceptanceCurve = AcceptanceCurve.fromSystemProperties(bidMaxUtil, beta);
     	
     	//Init Opponent Model
-    	opponentModel = new JohnnyOpponentModel(utilitySpace);
+    	int combination = "min".equals(System.getProperty("gaagent.opponents")) ? CombinedOpponentUtility.MINIMUM
+    			: CombinedOpponentUtility.NASH;
+    	opponentModels = new OpponentModels(genomeCodec, combination);
+    	if(sharedEstimate != null) {
+    		fitnessModel = new FitnessModel(sharedEstimate.getOwnUtilitySpace(), sharedEstimate.getOwnDistanceSpace(),
+    				opponentModels.getOpponentUtility(), bidMaxUtil, alpha);
+    		outcomeIndex = sharedEstimate.getOutcomeIndex();
+    	} else {
+    		fitnessModel = new FitnessModel(CompiledUtilitySpace.compile(estimatedUtilitySpace, genomeCodec),
+    				CompiledUtilitySpace.compileRaw(estimatedUtilitySpace, genomeCodec),
+    				opponentModels.getOpponentUtility(), bidMaxUtil, alpha);
+    		outcomeIndex = OutcomeIndex.build(genomeCodec, fitnessModel.getOwnUtilitySpace(), indexMaxOutcomes);
+    	}
+    	if(useFrontier && outcomeIndex == null) {
+    		paretoFrontier = new ParetoFrontier(genomeCodec, fitnessModel.getOwnUtilitySpace(),
+    				fitnessModel.getOpponentUtilitySpace(), 4 * popSize);
+    		immigrantCount = (int) (popSize * elitism);
+    		immigrantGenes = new int[immigrantCount * genomeCodec.getIssueCount()];
+    	}
+    	
+    	String recordDirectory = System.getProperty("gaagent.record");
+    	if(recordDirectory != null) {
+    		recorder = SessionRecorder.open(new File(recordDirectory), getPartyId().toString(), genomeCodec);
+    		if(recorder != null) {
+    			try {
+    				recorder.writeHeader(seed, getTimeLine() instanceof DiscreteTimeline, getTimeLine().getTotalTime(),
+    						getPartyId().toString(), bidRanking);
+    			} catch (IOException e) {
+    				e.printStackTrace();
+    				recorder = null;
+    			}
+    		}
+    	}
     			
     }
     
 	@Override
 	public AbstractUtilitySpace estimateUtilitySpace() 
 	{
-		return utilitySpaceEstimator(getDomain(), userModel);
+		estimatedRankingSize = userModel.getBidRanking().getSize();
+		if(domainCache != null) {
+			genomeCodec = domainCache.getCodec(getDomain());
+			long fingerprint = SnapshotStore.fingerprint(genomeCodec, userModel.getBidRanking());
+			if(snapshotStore != null) {
+				snapshot = snapshotStore.load(fingerprint, genomeCodec);
+			}
+			//only the first session on this domain and ranking estimates, the others wait for it
+			sharedEstimate = domainCache.getEstimate(fingerprint,
+					() -> DomainCache.Estimate.build(genomeCodec, estimateOwnSpace(), indexMaxOutcomes));
+			return sharedEstimate.newUtilitySpace(genomeCodec);
+		}
+		genomeCodec = new GenomeCodec(getDomain());
+		if(snapshotStore != null) {
+			snapshot = snapshotStore.load(SnapshotStore.fingerprint(genomeCodec, userModel.getBidRanking()), genomeCodec);
+		}
+		return estimateOwnSpace();
+	}
+	
+	//From the snapshot when warm-started, else by LP; on the codec's copy of the domain, which a shared codec
+	//may have loaded in another session
+	private AdditiveUtilitySpace estimateOwnSpace() {
+		if(snapshot != null) {
+			metrics.trace("warm start from snapshot");
+			return snapshot.toUtilitySpace(genomeCodec);
+		}
+		estimator = new LinearProgrammingUtilitySpaceEstimator(genomeCodec.getDomain());
+		estimator.setMetrics(metrics);
+		estimator.estimateUsingBidRanks(userModel.getBidRanking());
+		return estimator.getUtilitySpace();
+	}
+	
+	//Re-estimates from a grown ranking, adding only the new comparisons to the kept LP
+	public void updateUserModel(UserModel um) {
+		userModel = um;
+		if(fitnessModel == null) {
+			return;
+		}
+		//a warm-started or shared session estimates only once its ranking changes, the new estimate is its own
+		sharedEstimate = null;
+		if(estimator == null) {
+			estimator = new LinearProgrammingUtilitySpaceEstimator(genomeCodec.getDomain());
+			estimator.setMetrics(metrics);
+		}
+		estimatedRankingSize = um.getBidRanking().getSize();
+		if(!estimator.updateUsingBidRanks(um.getBidRanking())) {
+			return;
+		}
+		AdditiveUtilitySpace estimatedUtilitySpace = estimator.getUtilitySpace();
+		this.utilitySpace = estimatedUtilitySpace;
+		maxUtilityBid = null;
+		double bidMaxUtil = getUtility(getMaxUtilityBid());
+		acceptanceCurve = AcceptanceCurve.fromSystemProperties(bidMaxUtil, beta);
+		FitnessModel updatedModel = fitnessModel.withOwnSpace(CompiledUtilitySpace.compile(estimatedUtilitySpace, genomeCodec),
+				CompiledUtilitySpace.compileRaw(estimatedUtilitySpace, genomeCodec), bidMaxUtil);
+		if(outcomeIndex != null) {
+			outcomeIndex = OutcomeIndex.build(genomeCodec, updatedModel.getOwnUtilitySpace(), indexMaxOutcomes);
+		}
+		if(paretoFrontier != null) {
+			paretoFrontier.setUtilitySpaces(updatedModel.getOwnUtilitySpace(), updatedModel.getOpponentUtilitySpace());
+		}
+		fitnessModel = updatedModel;
 	}
 	
 	//self heuristic method
@@ -96,224 +257,182 @@ public class GAagent extends AbstractNegotiationParty {
 
     @Override
     public Action chooseAction(List<Class<? extends Action>> list) {
+    	long start = metrics.start();
+    	//one time for the whole decision, and the one recorded for replay
+    	double time = getTimeLine().getTime();
+    	Action action = decideAction(time);
+    	metrics.stop(AgentMetrics.ROUND, start);
+    	metrics.increment(action instanceof Accept ? AgentMetrics.ACCEPTS : AgentMetrics.OFFERS_SENT);
+    	if(recorder != null) {
+    		try {
+    			recorder.action(time, action);
+    		} catch (IOException e) {
+    			e.printStackTrace();
+    			recorder = null;
+    		}
+    	}
+    	return action;
+    }
 
-        double time = getTimeLine().getTime();
-        double timePressure = 1 - Math.pow(Math.min(time, 1)/1, 1/beta);
+    private Action decideAction(final double time) {
+        if (userModel != null && userModel.getBidRanking().getSize() != estimatedRankingSize) {
+        	updateUserModel(userModel);
+        }
+        FitnessModel fitnessModel = this.fitnessModel;
 		if (lastReceivedOffer != null) {
 			//Accept Bid if opponent bid utility is higher than its last offer
 				
-			if(getUtility(lastReceivedOffer)>= bidMaxUtil || historySendingOffers.contains(lastReceivedOffer)) {
-				System.out.println("accepting offer");
+			double lastReceivedUtility = fitnessModel.getUtility(lastReceivedGenes, 0);
+			if(lastReceivedUtility >= fitnessModel.getBidMaxUtil() || historySendingOffers.contains(lastReceivedGenes, 0)) {
+				metrics.trace("accepting offer");
 				return new Accept(this.getPartyId(), lastReceivedOffer);
 			} 
+			//Cheap acceptance stage, the search only runs when a counter-offer is needed
+			final AcceptanceCurve acceptanceCurve = this.acceptanceCurve;
+			if(acceptanceCurve != null && acceptanceCurve.accepts(lastReceivedUtility, time)) {
+				metrics.trace("accepting offer (above the acceptance curve)");
+				return new Accept(getPartyId(), lastReceivedOffer);
+			}
+			//Anytime offers never drop below the concession target, so an offer at or above it is accepted
+			else if(anytimeEvolution && outcomeIndex == null && lastReceivedUtility >= getConcessionTarget(fitnessModel, time)) {
+				metrics.trace("accepting offer (above the concession target)");
+				return new Accept(getPartyId(), lastReceivedOffer);
+			}
+			//Exact search on small domains
+			else if (outcomeIndex != null) {
+				return chooseIndexedAction(fitnessModel, lastReceivedUtility, time);
+			}
 			//Doing genetic algorithm
 			else {
-				System.out.println("Creating offers w/ genetic algorithm");
-				HashMap<Bid,Double> newPopList = new HashMap<Bid,Double>();
-				
-				//Evaluate offers
-				
-				for (Bid bid : popList.keySet()) {
-					double fitness = getFitness(bid,lastReceivedOffer,timePressure);
-					popList.put(bid,fitness);
-				}
-				
-				//Elitism (sorting + choosing best bids by fitness)
-				
-				int numElit = (int) ((double) popList.size() * elitism);
-				List<Entry<Bid, Double>> sortedList = new ArrayList<>(popList.entrySet());
-				sortedList.sort(Entry.<Bid, Double>comparingByValue().reversed());
-				sortedList = sortedList.subList(0, numElit);
-		        for (Entry<Bid, Double> entry : sortedList) {
-		        	newPopList.put(entry.getKey(),entry.getValue());
-		        }
-		        
-				//Selection
-
-				List<Bid> bidList = new ArrayList<Bid>(popList.keySet());
-				List<Bid> selectBid = new ArrayList<Bid>();
-				
-				// if pop size is less than default pool size
-				int matingPoolSize = selectionPool;
-				if(popList.size() < selectionPool) {
-					matingPoolSize = popList.size();
-				}
-				
-				for(int i=0;i<matingPoolSize;i++) {
-					Random rand1 = new Random();
-					Random rand2 = new Random();
-
-					Bid Bid1 = bidList.get(rand1.nextInt(bidList.size()));
-					Bid Bid2 = bidList.get(rand2.nextInt(bidList.size()));
-					if(popList.get(Bid1) > popList.get(Bid2)) {
-						selectBid.add(Bid1);
-					} else {
-						selectBid.add(Bid2);
-					}
-				}
-		
-				//Crossover
-		
-				List<Bid> crossoverList = new ArrayList<Bid>();
-				for(int i=0;i<matingPoolSize;i=i+2) {
-					if(i >= matingPoolSize) {
-						break;
-					}
-					Bid bid1 = bidList.get(i);
-					int selectBid2 = i+1;
-					if(selectBid2==bidList.size()) {
-						selectBid2 = 0;
-					}
-					Bid bid2 = bidList.get(selectBid2);
-					
-					double rand = new Random().nextDouble();
-					if(crossoverRate > rand) {					
-						Random rand1 = new Random();
-						Random rand2 = new Random();
-
-						int start = rand1.nextInt(issues.size());
-						int end = rand2.nextInt(issues.size());
-						if(start > end) {
-							int temp = start;
-							start = end;
-							end = temp;
-						}
-						
-						for(int j = start;j<end+1;j++) {
-							//swap value based on issue number
-							Issue issue = issues.get(j);
-							Value val1 = bid1.getValue(issue);
-							Value val2 = bid2.getValue(issue);
-							Bid newBid1 = bid1.putValue(issue.getNumber(), val2);
-							Bid newBid2 = bid2.putValue(issue.getNumber(), val1);
-							bid1 = newBid1;
-							bid2 = newBid2;
+				metrics.trace("Creating offers w/ genetic algorithm");
+				final int[] bestGenes = new int[genomeCodec.getIssueCount()];
+				//the turn budget ends early once the bid the agent would send clears the bar, and that bid is sent
+				final int[] clearedRow = { -1 };
+				Predicate<GeneticAlgorithm> goodEnough = acceptanceCurve == null ? null : ga -> {
+					int row = chooseOfferRow(ga, fitnessModel, time);
+					GenomePopulation population = ga.getPopulation();
+					boolean cleared = acceptanceCurve.accepts(fitnessModel.getUtility(population.getGenes(),
+							population.getRowOffset(row)), time);
+					clearedRow[0] = cleared ? row : -1;
+					return cleared;
+				};
+				double bestFitness = evolution.decide(getTurnBudgetNanos(), () -> fitnessModel.cached(getTimePressure(time)),
+						goodEnough, ga -> {
+					//Deciding offer (+considering last opponent offer)
+					long offerStart = metrics.start();
+					int bestRow = clearedRow[0] >= 0 ? clearedRow[0] : chooseOfferRow(ga, fitnessModel, time);
+					GenomePopulation population = ga.getPopulation();
+					System.arraycopy(population.getGenes(), population.getRowOffset(bestRow), bestGenes, 0, bestGenes.length);
+					if(paretoFrontier != null) {
+						//next generations on every island start from the frontier bids the agent still prefers to the last offer
+						for(int island = 0; island < islandModel.getIslandCount(); island++) {
+							paretoFrontier.addPopulation(islandModel.getIsland(island).getPopulation());
 						}
+						islandModel.setImmigrants(immigrantGenes, paretoFrontier.collectAtLeast(lastReceivedUtility, immigrantCount, immigrantGenes));
 					}
-					crossoverList.add(bid1);
-					crossoverList.add(bid2);
-				}
+					metrics.stop(AgentMetrics.OFFER_CHOICE, offerStart);
+					return population.getFitness(bestRow);
+				});
+				double bestUtility = fitnessModel.getUtility(bestGenes, 0);
 		        
-				//Mutation
-				
-				List<Bid> mutationList = new ArrayList<Bid>();
-				for(Bid bid: crossoverList) {
-					for(Issue issue: issues) {
-						double rand = new Random().nextDouble();
-						if(mutationRate > rand) {
-							IssueDiscrete issueDiscrete = (IssueDiscrete) issue;
-							Random randVal = new Random();
-							Value newVal = issueDiscrete.getValue(randVal.nextInt(issueDiscrete.getNumberOfValues()));
-							Bid newBid = bid.putValue(issue.getNumber(), newVal);
-							bid = newBid;
-						}
-					}
-					mutationList.add(bid);
-				}	
-				
-				//Creating new pop
-				//Mutation>crossover>selection non-dupe
-				
-				int currentPop = newPopList.size();
-				for(Bid bid: mutationList) {
-					if(!newPopList.containsKey(bid)) {
-						double fitness = 0.0;
-						if(popList.containsKey(bid)) {
-							fitness = popList.get(bid);
-						}
-						newPopList.put(bid,fitness);
-						currentPop++;
-					}
-					if(currentPop==popSize) {
-						break;
-					}
-				}
-				if(currentPop!=popSize) {
-					Collections.shuffle(crossoverList);
-					for(Bid bid: crossoverList) {
-						if(!newPopList.containsKey(bid)) {
-							double fitness = 0.0;
-							if(popList.containsKey(bid)) {
-								fitness = popList.get(bid);
-							}
-							newPopList.put(bid,fitness);
-							currentPop++;
-						}
-						if(currentPop==popSize) {
-							break;
-						}
-					}
-					if(currentPop!=popSize) {
-						Collections.shuffle(selectBid);
-						for(Bid bid: selectBid) {
-							if(!newPopList.containsKey(bid)) {
-								newPopList.put(bid,popList.get(bid));
-								currentPop++;
-							}
-							if(currentPop==popSize) {
-								break;
-							}
-						}
-					}
-				}
-				popList = newPopList;
-				for (Entry<Bid, Double> entry : popList.entrySet()) {
-					if(entry.getValue() == 0.0) {
-						popList.put(entry.getKey(),getFitness(entry.getKey(),lastReceivedOffer,timePressure));
-					}
-				}
-				//Deciding offer (+considering last opponent offer)
-				
-				List<Entry<Bid, Double>> decidedList = new ArrayList<>(popList.entrySet());
-				decidedList.sort(Entry.<Bid, Double>comparingByValue().reversed());
-				decidedList = decidedList.subList(0, randomBid);
-				//choose top three offers in random
-				Random rand = new Random();
-				Bid bestBid = decidedList.get(rand.nextInt(randomBid)).getKey();
-				double bestFitness = decidedList.get(rand.nextInt(randomBid)).getValue();
-		        
-				if(getUtility(bestBid) >= getUtility(lastReceivedOffer)) {
+				if(bestUtility >= lastReceivedUtility) {
+					Bid bestBid = genomeCodec.decode(bestGenes, 0);
 					//record proposed offers
-					if(!historySendingOffers.contains(bestBid)) {
-						historySendingOffers.add(bestBid);
+					historySendingOffers.add(bestGenes, 0, bestUtility);
+					if(metrics.isTracing()) {
+						metrics.trace("send new offer <fitness="+bestFitness+",utility="+bestUtility+">");
 					}
-					System.out.println("send new offer <fitness="+bestFitness+",utility="+getUtility(bestBid)+">");
 					return new Offer(getPartyId(), bestBid);
 				} 
 				else {
-					System.out.println("accepting offer (comparing with proposal offers "+getUtility(bestBid)+" >= "+getUtility(lastReceivedOffer)+")");
+					if(metrics.isTracing()) {
+						metrics.trace("accepting offer (comparing with proposal offers "+bestUtility+" >= "+lastReceivedUtility+")");
+					}
 				    return new Accept(getPartyId(), lastReceivedOffer);
 				}
 			}
 		}
-		System.out.println("no offering response");
+		metrics.trace("no offering response");
 		// first offer (no opponent offer)
-		historySendingOffers.add(getMaxUtilityBid());
+		historySendingOffers.add(getMaxUtilityBid(), fitnessModel.getBidMaxUtil());
 	    return new Offer(getPartyId(), getMaxUtilityBid());
     }
 
-    public double getFitness(Bid offer,Bid opponentOffer,double TP) {
-    	AdditiveUtilitySpace additiveUtilitySpace = (AdditiveUtilitySpace) utilitySpace;
-    	
-    	//calculate euclideanDistance
-    	double euclideanDistance = 0.0;
-    	for (Issue issue : issues) {
-    		EvaluatorDiscrete evaluatorDiscrete = (EvaluatorDiscrete) additiveUtilitySpace.getEvaluator(issue);
-    		double issueWeightOwn = additiveUtilitySpace.getWeight(issue);
-    		double attrValueOwn = evaluatorDiscrete.getDoubleValue((ValueDiscrete) offer.getValue(issue));
-    		double attrValueOpp = evaluatorDiscrete.getDoubleValue((ValueDiscrete) opponentOffer.getValue(issue));
-    		if(attrValueOwn!=attrValueOpp) {
-    			double distance = issueWeightOwn * (attrValueOwn - attrValueOpp);
-    			euclideanDistance = euclideanDistance + (distance*distance);
+    private int chooseOfferRow(GeneticAlgorithm ga, FitnessModel fitnessModel, double time) {
+    	return ga.isMultiObjective() ? ga.selectFrontOffer(getTimePressure(time))
+    			: anytimeEvolution ? ga.selectConcessionOffer(getConcessionTarget(fitnessModel, time))
+    			: ga.selectOffer(randomBid);
+    }
+
+    //Random pick among the best fitness outcomes the agent prefers to the last offer, else accept
+    private Action chooseIndexedAction(FitnessModel fitnessModel, double lastReceivedUtility, double time) {
+    	long offerStart = metrics.start();
+    	final double timePressure = getTimePressure(time);
+    	final int[] opponentGenes = lastReceivedGenes;
+    	final double maxOpponentUtility = fitnessModel.getOpponentUtilitySpace().getMaxUtility();
+    	int found = outcomeIndex.topK(lastReceivedUtility, Double.POSITIVE_INFINITY, randomBid, new OutcomeIndex.Scorer() {
+    		@Override
+    		public double score(int[] genes, int offset) {
+    			return fitnessModel.getFitness(genes, offset, opponentGenes, timePressure);
+    		}
+
+    		@Override
+    		public double upperBound(double utility) {
+    			return fitnessModel.getFitnessBound(utility, maxOpponentUtility, timePressure);
     		}
+    	}, indexPositions, indexScores);
+    	if(found == 0) {
+    		metrics.stop(AgentMetrics.OFFER_CHOICE, offerStart);
+    		metrics.trace("accepting offer (no outcome above it)");
+    		return new Accept(getPartyId(), lastReceivedOffer);
     	}
-    	euclideanDistance = Math.sqrt(euclideanDistance);
-    	
-    	double constant = alpha*TP;
-    	double ownUtility = getUtility(offer)/bidMaxUtil;
-    	double nashPoint = getUtility(offer)*opponentModel.getOpponentUtility(offer);
-    	double fitnessValue = constant*ownUtility+(1-constant)*((1-euclideanDistance))+nashPoint;
-    	return fitnessValue;
+    	int choice = indexRandom.nextInt(found);
+    	int[] bestGenes = new int[genomeCodec.getIssueCount()];
+    	outcomeIndex.getGenes(indexPositions[choice], bestGenes, 0);
+    	double bestUtility = outcomeIndex.getUtility(indexPositions[choice]);
+    	historySendingOffers.add(bestGenes, 0, bestUtility);
+    	metrics.stop(AgentMetrics.OFFER_CHOICE, offerStart);
+    	if(metrics.isTracing()) {
+    		metrics.trace("send indexed offer <fitness="+indexScores[choice]+",utility="+bestUtility+">");
+    	}
+    	return new Offer(getPartyId(), genomeCodec.decode(bestGenes, 0));
+    }
+
+    private double getTimePressure() {
+        return getTimePressure(getTimeLine().getTime());
+    }
+
+    private double getTimePressure(double time) {
+        return 1 - Math.pow(Math.min(time, 1)/1, 1/beta);
+    }
+
+    //Anytime evolution converges on the agent's best bids, so it concedes explicitly: the offer's own utility
+    //falls Boulware-like from the max-utility bid to halfway between the worst and best offers received
+    private double getConcessionTarget(FitnessModel fitnessModel, double time) {
+    	double floor = (historyReceivedOffers.getMinUtility() + historyReceivedOffers.getMaxUtility()) / 2;
+    	return floor + (1 - Math.pow(Math.min(time, 1), 1 / concessionBeta)) * (fitnessModel.getBidMaxUtil() - floor);
+    }
+
+    //One generation unless anytime evolution is on; capped at a tenth of the remaining time
+    private long getTurnBudgetNanos() {
+    	if (!anytimeEvolution) {
+    		return 0L;
+    	}
+    	long budget = turnBudgetMs * 1000000L;
+    	TimeLineInfo timeline = getTimeLine();
+    	if (!(timeline instanceof DiscreteTimeline)) {
+    		double remainingSeconds = timeline.getTotalTime() - timeline.getCurrentTime();
+    		budget = Math.min(budget, (long) (remainingSeconds * 1e8));
+    	}
+    	return Math.max(budget, 0L);
+    }
+
+    public double getFitness(Bid offer,Bid opponentOffer,double TP) {
+    	return getFitness(genomeCodec.encode(offer), 0, genomeCodec.encode(opponentOffer), TP);
+    }
+
+    public double getFitness(int[] genes, int offset, int[] opponentGenes, double TP) {
+    	return fitnessModel.getFitness(genes, offset, opponentGenes, TP);
     }
 
     @Override
@@ -324,24 +443,72 @@ public class GAagent extends AbstractNegotiationParty {
             Offer offer = (Offer) act;
             // storing last received offer
             lastReceivedOffer = offer.getBid();
+            lastReceivedGenes = genomeCodec.encode(lastReceivedOffer);
+            fitnessModel.setOpponentOffer(lastReceivedGenes);
+            metrics.increment(AgentMetrics.OFFERS_RECEIVED);
+            if (recorder != null) {
+            	try {
+            		recorder.received(getTimeLine().getTime(), sender, lastReceivedGenes);
+            	} catch (IOException e) {
+            		e.printStackTrace();
+            		recorder = null;
+            	}
+            }
+            historyReceivedOffers.add(lastReceivedGenes, 0, fitnessModel.getUtility(lastReceivedGenes, 0));
+            //evolve between turns once there is an offer to evolve against
+            if (anytimeEvolution && outcomeIndex == null && !evolution.isRunning()) {
+            	evolution.start(() -> getTimeLine().getTime() >= 1.0);
+            }
             // update opponent model
-         	opponentModel.updateOpponentPreference(lastReceivedOffer);
+         	opponentModels.updateOpponentPreference(sender, lastReceivedGenes);
+         	fitnessModel.setOpponentUtilitySpace(opponentModels.getOpponentUtility());
+         	if (paretoFrontier != null) {
+         		paretoFrontier.setOpponentUtilitySpace(fitnessModel.getOpponentUtilitySpace());
+         		paretoFrontier.add(lastReceivedGenes, 0);
+         	}
             
         }
     }
 
 
+    @Override
+    public Map<String, String> negotiationEnded(Bid acceptedBid) {
+    	evolution.stop();
+    	metrics.report();
+    	if(snapshotStore != null && userModel != null) {
+    		try {
+    			snapshotStore.save(SnapshotStore.fingerprint(genomeCodec, userModel.getBidRanking()), genomeCodec,
+    					(AdditiveUtilitySpace) utilitySpace, genomeCodec.encode(getMaxUtilityBid()), islandModel.getBest().getPopulation());
+    		} catch (IOException e) {
+    			e.printStackTrace();
+    		}
+    	}
+    	if(recorder != null) {
+    		try {
+    			recorder.close();
+    		} catch (IOException e) {
+    			e.printStackTrace();
+    		}
+    		recorder = null;
+    	}
+    	return super.negotiationEnded(acceptedBid);
+    }
+
     @Override
     public String getDescription() {
         return "GAagent";
     }
 
+    //Computed once per estimate
     private Bid getMaxUtilityBid() {
+        if (maxUtilityBid != null) {
+            return maxUtilityBid;
+        }
         try {
-            return this.utilitySpace.getMaxUtilityBid();
+            maxUtilityBid = this.utilitySpace.getMaxUtilityBid();
         } catch (Exception e) {
             e.printStackTrace();
         }
-        return null;
+        return maxUtilityBid;
     }
 }
\ No newline at end of file
@@ -0,0 +1,518 @@
+package project;
+
+import java.util.List;
+import java.util.Random;
+
+import genius.core.Bid;
+
+public class GeneticAlgorithm {
+
+	//Survivor selection: scalar fitness with elitism, or NSGA-II over own utility, closeness to the
+	//opponent's offer and Nash product as separate objectives
+	public static final int SCALAR = 0;
+	public static final int NSGA2 = 1;
+
+	public interface FitnessFunction {
+		double getFitness(GenomePopulation population, int row);
+	}
+
+	//Sets the fitness of count listed rows (at most FitnessKernel.BLOCK) in one call
+	public interface BatchFitnessFunction extends FitnessFunction {
+		void evaluate(GenomePopulation population, int[] rows, int count);
+	}
+
+	private final GenomeCodec codec;
+	private final int issueCount;
+	private final Random random;
+	private FitnessEvaluator fitnessEvaluator = new FitnessEvaluator();
+	private AgentMetrics metrics = AgentMetrics.DISABLED;
+
+	//Genetic algorithm parameter
+	private final int popSize;
+	private final int selectionPool;
+	private final double elitism;
+	private final double crossoverRate;
+	private final double mutationRate;
+	private final int selection;
+
+	//Populations are swapped every generation, buffers are reused
+	private GenomePopulation population;
+	private GenomePopulation nextPopulation;
+	private final int[] order;
+	private final int[] selected;
+	private final int[] crossoverGenes;
+	private final int[] mutationGenes;
+	private final int[] shuffled;
+	//outside genomes that join every next generation after the elite
+	private final int[] immigrantGenes;
+	private int immigrantCount = 0;
+	//genomes from other islands that join only the next generation
+	private final int[] migrantGenes;
+	private int migrantCount = 0;
+	//NSGA-II: parents and offspring share the population, front rank and crowding of the current rows
+	private final NondominatedSort nondominatedSort;
+	private final int[] rowRank;
+	private final double[] rowCrowding;
+	private final int[] offspringGenes;
+	private final int[] parents;
+
+	public GeneticAlgorithm(GenomeCodec codec, int popSize, int selectionPool, double elitism,
+			double crossoverRate, double mutationRate, Random random) {
+		this(codec, popSize, selectionPool, elitism, crossoverRate, mutationRate, SCALAR, random);
+	}
+
+	public GeneticAlgorithm(GenomeCodec codec, int popSize, int selectionPool, double elitism,
+			double crossoverRate, double mutationRate, int selection, Random random) {
+		this.codec = codec;
+		this.issueCount = codec.getIssueCount();
+		this.random = random;
+		this.popSize = popSize;
+		this.selectionPool = selectionPool;
+		this.elitism = elitism;
+		this.crossoverRate = crossoverRate;
+		this.mutationRate = mutationRate;
+		this.selection = selection;
+
+		//NSGA-II ranks parents, offspring (popSize rounded up to pairs) and the immigrant and migrant queues
+		//(popSize each at most) together, so no newcomer is turned away for lack of room
+		int capacity = selection == NSGA2 ? popSize + (popSize + 1) + popSize + popSize : popSize;
+		population = new GenomePopulation(issueCount, capacity);
+		nextPopulation = new GenomePopulation(issueCount, capacity);
+		order = new int[popSize];
+		selected = new int[selectionPool];
+		//an odd mating pool still produces pairs
+		crossoverGenes = new int[(selectionPool + 1) * issueCount];
+		mutationGenes = new int[(selectionPool + 1) * issueCount];
+		shuffled = new int[selectionPool + 1];
+		immigrantGenes = new int[popSize * issueCount];
+		migrantGenes = new int[popSize * issueCount];
+		if (selection == NSGA2) {
+			nondominatedSort = new NondominatedSort(3, capacity);
+			rowRank = new int[capacity];
+			rowCrowding = new double[capacity];
+			offspringGenes = new int[(popSize + 1) * issueCount];
+			parents = new int[popSize + 1];
+		} else {
+			nondominatedSort = null;
+			rowRank = null;
+			rowCrowding = null;
+			offspringGenes = null;
+			parents = null;
+		}
+	}
+
+	public void seed(List<Bid> bids) {
+		int[] genes = new int[issueCount];
+		for (Bid bid : bids) {
+			if (population.size() == popSize) {
+				break;
+			}
+			codec.encode(bid, genes, 0);
+			population.add(genes, 0);
+		}
+	}
+
+	//Seeds count genomes stored row-major in genes
+	public void seed(int[] genes, int count) {
+		for (int row = 0; row < count && population.size() < popSize; row++) {
+			population.add(genes, row * issueCount);
+		}
+	}
+
+	public void evaluate(FitnessFunction fitnessFunction) {
+		fitnessEvaluator.evaluate(population, fitnessFunction, false);
+	}
+
+	//Runs one generation: evaluation, elitism, selection, crossover, mutation
+	public void evolve(FitnessFunction fitnessFunction) {
+		if (selection == NSGA2) {
+			evolveNondominated(fitnessFunction);
+			return;
+		}
+		long time = metrics.start();
+		evaluate(fitnessFunction);
+		time = metrics.stop(AgentMetrics.EVALUATION, time);
+		int size = population.size();
+		if (size == 0) {
+			return;
+		}
+		nextPopulation.clear();
+
+		//Elitism (sorting + choosing best bids by fitness)
+
+		population.sortByFitness(order);
+		int numElit = (int) ((double) size * elitism);
+		for (int i = 0; i < numElit; i++) {
+			nextPopulation.add(population, order[i]);
+		}
+		for (int i = 0; i < immigrantCount && nextPopulation.size() < popSize; i++) {
+			addOffspring(immigrantGenes, i * issueCount);
+		}
+		for (int i = 0; i < migrantCount && nextPopulation.size() < popSize; i++) {
+			addOffspring(migrantGenes, i * issueCount);
+		}
+		migrantCount = 0;
+
+		//Selection
+
+		// if pop size is less than default pool size
+		int matingPoolSize = Math.min(selectionPool, size);
+		for (int i = 0; i < matingPoolSize; i++) {
+			int row1 = random.nextInt(size);
+			int row2 = random.nextInt(size);
+			if (population.getFitness(row1) > population.getFitness(row2)) {
+				selected[i] = row1;
+			} else {
+				selected[i] = row2;
+			}
+		}
+
+		time = metrics.stop(AgentMetrics.SELECTION, time);
+
+		//Crossover
+
+		int[] genes = population.getGenes();
+		int children = 0;
+		for (int i = 0; i < matingPoolSize; i = i + 2) {
+			int row2 = i + 1;
+			if (row2 == size) {
+				row2 = 0;
+			}
+			int child1 = children * issueCount;
+			int child2 = child1 + issueCount;
+			System.arraycopy(genes, population.getRowOffset(i), crossoverGenes, child1, issueCount);
+			System.arraycopy(genes, population.getRowOffset(row2), crossoverGenes, child2, issueCount);
+
+			if (crossoverRate > random.nextDouble()) {
+				int start = random.nextInt(issueCount);
+				int end = random.nextInt(issueCount);
+				if (start > end) {
+					int temp = start;
+					start = end;
+					end = temp;
+				}
+				//swap value based on issue number
+				for (int j = start; j < end + 1; j++) {
+					int temp = crossoverGenes[child1 + j];
+					crossoverGenes[child1 + j] = crossoverGenes[child2 + j];
+					crossoverGenes[child2 + j] = temp;
+				}
+			}
+			children = children + 2;
+		}
+
+		time = metrics.stop(AgentMetrics.CROSSOVER, time);
+
+		//Mutation
+
+		System.arraycopy(crossoverGenes, 0, mutationGenes, 0, children * issueCount);
+		for (int child = 0; child < children; child++) {
+			int offset = child * issueCount;
+			for (int j = 0; j < issueCount; j++) {
+				if (mutationRate > random.nextDouble()) {
+					mutationGenes[offset + j] = random.nextInt(codec.getValueCount(j));
+				}
+			}
+		}
+
+		time = metrics.stop(AgentMetrics.MUTATION, time);
+
+		//Creating new pop
+		//Mutation>crossover>selection non-dupe
+
+		for (int child = 0; child < children && nextPopulation.size() < popSize; child++) {
+			addOffspring(mutationGenes, child * issueCount);
+		}
+		if (nextPopulation.size() < popSize) {
+			shuffle(children);
+			for (int i = 0; i < children && nextPopulation.size() < popSize; i++) {
+				addOffspring(crossoverGenes, shuffled[i] * issueCount);
+			}
+		}
+		if (nextPopulation.size() < popSize) {
+			shuffle(matingPoolSize);
+			for (int i = 0; i < matingPoolSize && nextPopulation.size() < popSize; i++) {
+				nextPopulation.add(population, selected[shuffled[i]]);
+			}
+		}
+
+		GenomePopulation temp = population;
+		population = nextPopulation;
+		nextPopulation = temp;
+
+		time = metrics.stop(AgentMetrics.SELECTION, time);
+		fitnessEvaluator.evaluate(population, fitnessFunction, true);
+		metrics.stop(AgentMetrics.EVALUATION, time);
+		metrics.increment(AgentMetrics.GENERATIONS);
+	}
+
+	//Runs one NSGA-II generation: popSize offspring from binary tournaments on front rank and crowding distance,
+	//then the best popSize of parents, immigrants, migrants and offspring by front and crowding distance.
+	//The objectives are read from the cached fitness terms, so the fitness function must fill them.
+	private void evolveNondominated(FitnessFunction fitnessFunction) {
+		long time = metrics.start();
+		evaluate(fitnessFunction);
+		time = metrics.stop(AgentMetrics.EVALUATION, time);
+		int size = population.size();
+		if (size == 0) {
+			return;
+		}
+
+		//Selection
+
+		int children = popSize + (popSize & 1);
+		for (int i = 0; i < children; i++) {
+			int row1 = random.nextInt(size);
+			int row2 = random.nextInt(size);
+			if (rowRank[row1] < rowRank[row2] || (rowRank[row1] == rowRank[row2] && rowCrowding[row1] > rowCrowding[row2])) {
+				parents[i] = row1;
+			} else {
+				parents[i] = row2;
+			}
+		}
+
+		time = metrics.stop(AgentMetrics.SELECTION, time);
+
+		//Crossover
+
+		int[] genes = population.getGenes();
+		for (int i = 0; i < children; i = i + 2) {
+			int child1 = i * issueCount;
+			int child2 = child1 + issueCount;
+			System.arraycopy(genes, population.getRowOffset(parents[i]), offspringGenes, child1, issueCount);
+			System.arraycopy(genes, population.getRowOffset(parents[i + 1]), offspringGenes, child2, issueCount);
+			if (crossoverRate > random.nextDouble()) {
+				int start = random.nextInt(issueCount);
+				int end = random.nextInt(issueCount);
+				if (start > end) {
+					int temp = start;
+					start = end;
+					end = temp;
+				}
+				for (int j = start; j < end + 1; j++) {
+					int temp = offspringGenes[child1 + j];
+					offspringGenes[child1 + j] = offspringGenes[child2 + j];
+					offspringGenes[child2 + j] = temp;
+				}
+			}
+		}
+
+		time = metrics.stop(AgentMetrics.CROSSOVER, time);
+
+		//Mutation
+
+		//jumps straight to the next mutated gene: the gaps between mutations are geometric,
+		//so large populations draw per mutation instead of per gene
+		if (mutationRate > 0.0) {
+			double logKeep = Math.log(1.0 - mutationRate);
+			long geneCount = (long) children * issueCount;
+			long gene = skip(logKeep);
+			while (gene < geneCount) {
+				int issue = (int) (gene % issueCount);
+				offspringGenes[(int) gene] = random.nextInt(codec.getValueCount(issue));
+				gene = gene + 1 + skip(logKeep);
+			}
+		}
+
+		time = metrics.stop(AgentMetrics.MUTATION, time);
+
+		//Parents and newcomers compete in one population; duplicates of parents are dropped
+
+		for (int i = 0; i < immigrantCount; i++) {
+			population.add(immigrantGenes, i * issueCount);
+		}
+		for (int i = 0; i < migrantCount; i++) {
+			population.add(migrantGenes, i * issueCount);
+		}
+		migrantCount = 0;
+		for (int child = 0; child < children; child++) {
+			population.add(offspringGenes, child * issueCount);
+		}
+		time = metrics.stop(AgentMetrics.SELECTION, time);
+		fitnessEvaluator.evaluate(population, fitnessFunction, true);
+		time = metrics.stop(AgentMetrics.EVALUATION, time);
+
+		//Survivors by front, the last front by crowding distance
+
+		int count = population.size();
+		double[] ownUtility = nondominatedSort.getObjective(0);
+		double[] closeness = nondominatedSort.getObjective(1);
+		double[] nashProduct = nondominatedSort.getObjective(2);
+		for (int row = 0; row < count; row++) {
+			double utility = population.getUtility(row);
+			ownUtility[row] = utility;
+			closeness[row] = -population.getDistance(row);
+			nashProduct[row] = utility * population.getOpponentUtility(row);
+		}
+		nondominatedSort.sort(count, popSize);
+		int[] sorted = nondominatedSort.getOrder();
+		nextPopulation.clear();
+		for (int i = 0; i < count && nextPopulation.size() < popSize; i++) {
+			int row = nextPopulation.add(population, sorted[i]);
+			rowRank[row] = nondominatedSort.getRank(sorted[i]);
+			rowCrowding[row] = nondominatedSort.getCrowding(sorted[i]);
+		}
+
+		GenomePopulation temp = population;
+		population = nextPopulation;
+		nextPopulation = temp;
+
+		metrics.stop(AgentMetrics.SELECTION, time);
+		metrics.increment(AgentMetrics.GENERATIONS);
+	}
+
+	//Genes left unchanged before the next mutation
+	private long skip(double logKeep) {
+		if (logKeep == Double.NEGATIVE_INFINITY) {
+			return 0L;
+		}
+		return (long) (Math.log(1.0 - random.nextDouble()) / logKeep);
+	}
+
+	//keeps the fitness of offspring that already were in the current population
+	private void addOffspring(int[] source, int offset) {
+		int row = nextPopulation.add(source, offset);
+		if (row >= 0) {
+			int oldRow = population.indexOf(source, offset);
+			if (oldRow >= 0) {
+				nextPopulation.copyCache(row, population, oldRow);
+			}
+		}
+	}
+
+	private void shuffle(int count) {
+		for (int i = 0; i < count; i++) {
+			shuffled[i] = i;
+		}
+		for (int i = count - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int temp = shuffled[i];
+			shuffled[i] = shuffled[j];
+			shuffled[j] = temp;
+		}
+	}
+
+	//choose top offers in random
+	public int selectOffer(int topOffers) {
+		int size = population.size();
+		population.sortByFitness(order);
+		return order[random.nextInt(Math.min(topOffers, size))];
+	}
+
+	//Concession offer: the bid closest to the opponent's offer (then fittest) among those at or above a utility
+	//target, else the fittest bid. Reads the cached terms, so the last fitness function must have filled them.
+	public int selectConcessionOffer(double targetUtility) {
+		int size = population.size();
+		population.sortByFitness(order);
+		int best = -1;
+		for (int i = 0; i < size; i++) {
+			int row = order[i];
+			if (population.getUtility(row) >= targetUtility
+					&& (best < 0 || population.getDistance(row) < population.getDistance(best))) {
+				best = row;
+			}
+		}
+		return best < 0 ? order[0] : best;
+	}
+
+	//NSGA-II offer: the first-front bid closest to the opponent's offer (then best Nash product) among those at or
+	//above a utility target, which falls from the front's best to its worst own utility as time pressure goes to 0
+	public int selectFrontOffer(double timePressure) {
+		int size = population.size();
+		int frontSize = 1;
+		while (frontSize < size && rowRank[frontSize] == 0) {
+			frontSize++;
+		}
+		double maxUtility = Double.NEGATIVE_INFINITY;
+		double minUtility = Double.POSITIVE_INFINITY;
+		for (int row = 0; row < frontSize; row++) {
+			maxUtility = Math.max(maxUtility, population.getUtility(row));
+			minUtility = Math.min(minUtility, population.getUtility(row));
+		}
+		double target = Math.min(maxUtility, minUtility + timePressure * (maxUtility - minUtility));
+		int best = -1;
+		for (int row = 0; row < frontSize; row++) {
+			double utility = population.getUtility(row);
+			if (utility < target) {
+				continue;
+			}
+			if (best < 0 || population.getDistance(row) < population.getDistance(best)
+					|| (population.getDistance(row) == population.getDistance(best)
+							&& utility * population.getOpponentUtility(row) > population.getUtility(best)
+									* population.getOpponentUtility(best))) {
+				best = row;
+			}
+		}
+		return best;
+	}
+
+	public boolean isMultiObjective() {
+		return selection == NSGA2;
+	}
+
+	public static int getSelection(String name) {
+		return "nsga2".equals(name) ? NSGA2 : SCALAR;
+	}
+
+	//Replaces the immigrants with count genomes from genes, at most the population size
+	public void setImmigrants(int[] genes, int count) {
+		immigrantCount = Math.min(count, popSize);
+		System.arraycopy(genes, 0, immigrantGenes, 0, immigrantCount * issueCount);
+	}
+
+	//Queues a genome for the next generation only; false when the queue holds a population already
+	public boolean addMigrant(int[] genes, int offset) {
+		if (migrantCount == popSize) {
+			return false;
+		}
+		System.arraycopy(genes, offset, migrantGenes, migrantCount * issueCount, issueCount);
+		migrantCount++;
+		return true;
+	}
+
+	//Copies the count best genomes (by fitness, or by front and crowding) row-major into genes; returns how many there were
+	public int copyElite(int count, int[] genes) {
+		int size = population.size();
+		count = Math.min(count, size);
+		if (selection == NSGA2) {
+			//rows are kept in front and crowding order
+			for (int i = 0; i < count; i++) {
+				order[i] = i;
+			}
+		} else {
+			population.sortByFitness(order);
+		}
+		for (int i = 0; i < count; i++) {
+			System.arraycopy(population.getGenes(), population.getRowOffset(order[i]), genes, i * issueCount, issueCount);
+		}
+		return count;
+	}
+
+	public double getBestFitness() {
+		double best = Double.NEGATIVE_INFINITY;
+		for (int row = 0; row < population.size(); row++) {
+			best = Math.max(best, population.getFitness(row));
+		}
+		return best;
+	}
+
+	public Bid getBid(int row) {
+		return codec.decode(population.getGenes(), population.getRowOffset(row));
+	}
+
+	public void setFitnessEvaluator(FitnessEvaluator fitnessEvaluator) {
+		this.fitnessEvaluator = fitnessEvaluator;
+	}
+
+	public void setMetrics(AgentMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	public GenomePopulation getPopulation() {
+		return population;
+	}
+
+	public GenomeCodec getCodec() {
+		return codec;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,152 @@
+package project;
+
+import java.util.HashMap;
+import java.util.List;
+
+import genius.core.Bid;
+import genius.core.Domain;
+import genius.core.issue.Issue;
+import genius.core.issue.IssueDiscrete;
+import genius.core.issue.Value;
+import genius.core.issue.ValueDiscrete;
+
+public class GenomeCodec {
+
+	//Maps bids to per-issue value indices (genes) and back
+	private final Domain domain;
+	private final List<Issue> issues;
+	private final IssueDiscrete[] discreteIssues;
+	private final int[] issueNumbers;
+	private final int[] valueCounts;
+	private final int[] offsets;
+	private final int totalValueCount;
+	private final HashMap<Value, Integer>[] valueIndex;
+	//true when every outcome has a distinct mixed-radix key in a long
+	private final double outcomeCount;
+	private final boolean exactKeys;
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public GenomeCodec(Domain domain) {
+		this.domain = domain;
+		this.issues = domain.getIssues();
+		int issueCount = issues.size();
+		discreteIssues = new IssueDiscrete[issueCount];
+		issueNumbers = new int[issueCount];
+		valueCounts = new int[issueCount];
+		offsets = new int[issueCount];
+		valueIndex = new HashMap[issueCount];
+
+		int offset = 0;
+		for (int i = 0; i < issueCount; i++) {
+			IssueDiscrete issueDiscrete = (IssueDiscrete) issues.get(i);
+			discreteIssues[i] = issueDiscrete;
+			issueNumbers[i] = issueDiscrete.getNumber();
+			valueCounts[i] = issueDiscrete.getNumberOfValues();
+			offsets[i] = offset;
+			offset = offset + valueCounts[i];
+
+			valueIndex[i] = new HashMap<Value, Integer>();
+			for (int v = 0; v < valueCounts[i]; v++) {
+				valueIndex[i].put(issueDiscrete.getValue(v), v);
+			}
+		}
+		totalValueCount = offset;
+
+		double outcomes = 1.0;
+		for (int i = 0; i < issueCount; i++) {
+			outcomes = outcomes * valueCounts[i];
+		}
+		outcomeCount = outcomes;
+		exactKeys = outcomes < (double) Long.MAX_VALUE;
+	}
+
+	//Mixed-radix outcome number, or a 64-bit hash on outcome spaces too large for a long
+	public long getKey(int[] genes, int offset) {
+		long key = 0;
+		if (exactKeys) {
+			for (int i = 0; i < issueNumbers.length; i++) {
+				key = key * valueCounts[i] + genes[offset + i];
+			}
+			return key;
+		}
+		key = 0x9E3779B97F4A7C15L;
+		for (int i = 0; i < issueNumbers.length; i++) {
+			key = (key ^ genes[offset + i]) * 0xBF58476D1CE4E5B9L;
+			key = key ^ (key >>> 31);
+		}
+		return key;
+	}
+
+	public boolean hasExactKeys() {
+		return exactKeys;
+	}
+
+	//Inverse of getKey, only defined for exact keys
+	public void decodeKey(long key, int[] genes, int offset) {
+		for (int i = issueNumbers.length - 1; i >= 0; i--) {
+			genes[offset + i] = (int) (key % valueCounts[i]);
+			key = key / valueCounts[i];
+		}
+	}
+
+	public double getOutcomeCount() {
+		return outcomeCount;
+	}
+
+	public int[] encode(Bid bid) {
+		int[] genes = new int[issueNumbers.length];
+		encode(bid, genes, 0);
+		return genes;
+	}
+
+	public void encode(Bid bid, int[] genes, int offset) {
+		for (int i = 0; i < issueNumbers.length; i++) {
+			genes[offset + i] = getValueIndex(i, bid.getValue(issueNumbers[i]));
+		}
+	}
+
+	public Bid decode(int[] genes, int offset) {
+		HashMap<Integer, Value> values = new HashMap<Integer, Value>();
+		for (int i = 0; i < issueNumbers.length; i++) {
+			values.put(issueNumbers[i], discreteIssues[i].getValue(genes[offset + i]));
+		}
+		return new Bid(domain, values);
+	}
+
+	public int getValueIndex(int issue, Value value) {
+		return valueIndex[issue].get(value);
+	}
+
+	public ValueDiscrete getValue(int issue, int value) {
+		return discreteIssues[issue].getValue(value);
+	}
+
+	public Domain getDomain() {
+		return domain;
+	}
+
+	public List<Issue> getIssues() {
+		return issues;
+	}
+
+	public IssueDiscrete getIssue(int issue) {
+		return discreteIssues[issue];
+	}
+
+	public int getIssueCount() {
+		return issueNumbers.length;
+	}
+
+	public int getValueCount(int issue) {
+		return valueCounts[issue];
+	}
+
+	//Offset of an issue's first value in flat per-value tables
+	public int getOffset(int issue) {
+		return offsets[issue];
+	}
+
+	public int getTotalValueCount() {
+		return totalValueCount;
+	}
+}
\ No newline at end of file
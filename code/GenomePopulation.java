@@ -0,0 +1,255 @@
+package project;
+
+import java.util.Arrays;
+
+public class GenomePopulation {
+
+	//Struct-of-arrays population: row-major genes plus a parallel fitness column
+	private final int issueCount;
+	private final int capacity;
+	private final int[] genes;
+	private final double[] fitness;
+	private final boolean[] evaluated;
+	private int size = 0;
+
+	//Cached fitness terms; a version of 0 means the term was never computed
+	private final double[] utility;
+	private final double[] distance;
+	private final double[] opponentUtility;
+	private final int[] utilityVersion;
+	private final int[] distanceVersion;
+	private final int[] opponentVersion;
+
+	//Open-addressing table of (row + 1) for duplicate checks, 0 = empty
+	private final int[] slots;
+	private final int mask;
+
+	public GenomePopulation(int issueCount, int capacity) {
+		this.issueCount = issueCount;
+		this.capacity = capacity;
+		genes = new int[issueCount * capacity];
+		fitness = new double[capacity];
+		evaluated = new boolean[capacity];
+		utility = new double[capacity];
+		distance = new double[capacity];
+		opponentUtility = new double[capacity];
+		utilityVersion = new int[capacity];
+		distanceVersion = new int[capacity];
+		opponentVersion = new int[capacity];
+
+		int tableSize = 1;
+		while (tableSize < capacity * 2) {
+			tableSize = tableSize << 1;
+		}
+		slots = new int[tableSize];
+		mask = tableSize - 1;
+	}
+
+	public void clear() {
+		size = 0;
+		Arrays.fill(slots, 0);
+	}
+
+	//Adds a genome unless it is already present; returns its row or -1
+	public int add(int[] source, int sourceOffset) {
+		if (size == capacity) {
+			return -1;
+		}
+		int slot = hash(source, sourceOffset) & mask;
+		while (slots[slot] != 0) {
+			if (equalsRow(slots[slot] - 1, source, sourceOffset)) {
+				return -1;
+			}
+			slot = (slot + 1) & mask;
+		}
+		int row = size;
+		System.arraycopy(source, sourceOffset, genes, row * issueCount, issueCount);
+		fitness[row] = 0.0;
+		evaluated[row] = false;
+		utilityVersion[row] = 0;
+		distanceVersion[row] = 0;
+		opponentVersion[row] = 0;
+		slots[slot] = row + 1;
+		size++;
+		return row;
+	}
+
+	public int add(GenomePopulation source, int sourceRow) {
+		int row = add(source.genes, source.getRowOffset(sourceRow));
+		if (row >= 0) {
+			copyCache(row, source, sourceRow);
+		}
+		return row;
+	}
+
+	//Copies fitness and cached terms of an identical genome
+	public void copyCache(int row, GenomePopulation source, int sourceRow) {
+		fitness[row] = source.fitness[sourceRow];
+		evaluated[row] = source.evaluated[sourceRow];
+		utility[row] = source.utility[sourceRow];
+		utilityVersion[row] = source.utilityVersion[sourceRow];
+		distance[row] = source.distance[sourceRow];
+		distanceVersion[row] = source.distanceVersion[sourceRow];
+		opponentUtility[row] = source.opponentUtility[sourceRow];
+		opponentVersion[row] = source.opponentVersion[sourceRow];
+	}
+
+	public int indexOf(int[] source, int sourceOffset) {
+		int slot = hash(source, sourceOffset) & mask;
+		while (slots[slot] != 0) {
+			if (equalsRow(slots[slot] - 1, source, sourceOffset)) {
+				return slots[slot] - 1;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	public boolean contains(int[] source, int sourceOffset) {
+		return indexOf(source, sourceOffset) >= 0;
+	}
+
+	private int hash(int[] source, int sourceOffset) {
+		int h = 1;
+		for (int i = 0; i < issueCount; i++) {
+			h = 31 * h + source[sourceOffset + i];
+		}
+		return h ^ (h >>> 16);
+	}
+
+	private boolean equalsRow(int row, int[] source, int sourceOffset) {
+		int offset = row * issueCount;
+		for (int i = 0; i < issueCount; i++) {
+			if (genes[offset + i] != source[sourceOffset + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	//Sorts row indices by fitness, best first
+	public void sortByFitness(int[] order) {
+		for (int i = 0; i < size; i++) {
+			order[i] = i;
+		}
+		sortDescending(order, fitness, 0, size - 1);
+	}
+
+	static void sortDescending(int[] order, double[] key, int low, int high) {
+		while (high - low > 16) {
+			int middle = (low + high) >>> 1;
+			double pivot = key[order[middle]];
+			int i = low;
+			int j = high;
+			while (i <= j) {
+				while (key[order[i]] > pivot) {
+					i++;
+				}
+				while (key[order[j]] < pivot) {
+					j--;
+				}
+				if (i <= j) {
+					int temp = order[i];
+					order[i] = order[j];
+					order[j] = temp;
+					i++;
+					j--;
+				}
+			}
+			//recurse into the smaller half to bound stack depth
+			if (j - low < high - i) {
+				sortDescending(order, key, low, j);
+				low = i;
+			} else {
+				sortDescending(order, key, i, high);
+				high = j;
+			}
+		}
+		for (int i = low + 1; i <= high; i++) {
+			int row = order[i];
+			double value = key[row];
+			int j = i - 1;
+			while (j >= low && key[order[j]] < value) {
+				order[j + 1] = order[j];
+				j--;
+			}
+			order[j + 1] = row;
+		}
+	}
+
+	public int getGene(int row, int issue) {
+		return genes[row * issueCount + issue];
+	}
+
+	public int[] getGenes() {
+		return genes;
+	}
+
+	public int getRowOffset(int row) {
+		return row * issueCount;
+	}
+
+	public double getFitness(int row) {
+		return fitness[row];
+	}
+
+	public void setFitness(int row, double value) {
+		fitness[row] = value;
+		evaluated[row] = true;
+	}
+
+	public boolean isEvaluated(int row) {
+		return evaluated[row];
+	}
+
+	public int getUtilityVersion(int row) {
+		return utilityVersion[row];
+	}
+
+	public double getUtility(int row) {
+		return utility[row];
+	}
+
+	public void setUtility(int row, double value, int version) {
+		utility[row] = value;
+		utilityVersion[row] = version;
+	}
+
+	public int getDistanceVersion(int row) {
+		return distanceVersion[row];
+	}
+
+	public double getDistance(int row) {
+		return distance[row];
+	}
+
+	public void setDistance(int row, double value, int version) {
+		distance[row] = value;
+		distanceVersion[row] = version;
+	}
+
+	public int getOpponentVersion(int row) {
+		return opponentVersion[row];
+	}
+
+	public double getOpponentUtility(int row) {
+		return opponentUtility[row];
+	}
+
+	public void setOpponentUtility(int row, double value, int version) {
+		opponentUtility[row] = value;
+		opponentVersion[row] = version;
+	}
+
+	public int getIssueCount() {
+		return issueCount;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public int size() {
+		return size;
+	}
+}
\ No newline at end of file
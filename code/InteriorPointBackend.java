@@ -0,0 +1,460 @@
+package project;
+
+import java.util.Arrays;
+
+public class InteriorPointBackend implements LinearProgramBackend {
+
+	//The dense normal matrix has one row per structural column
+	private static final int MAX_STRUCTURAL_COLUMNS = 2048;
+	private static final int MAX_ITERATIONS = 200;
+	private static final double TOLERANCE = 1e-9;
+	private static final double STEP_FRACTION = 0.995;
+
+	//Reduced problem: structural columns become the rows of the dual, singleton columns become bounds on its variables
+	private int structuralCount;
+	private int[] structural;
+	private int dualCount;
+	private int[] dualStart;
+	private int[] dualIndex;
+	private double[] dualValue;
+	private double[] dualCost;
+	private double[] dualUpper;
+	private double[] structuralCost;
+
+	//Solves min c.x, x >= 0 through its dual with a primal-dual path-following method.
+	//On degenerate problems the iterates converge to the centre of the optimal face rather than to one of its vertices.
+	//Returns null if a column is not declared non-negative, the problem is too large or no optimum was reached.
+	@Override
+	public double[] solve(SparseLinearProgram lp) {
+		int[] eliminatedColumn = new int[lp.getRowCount()];
+		if (!reduce(lp, eliminatedColumn)) {
+			return null;
+		}
+		double[] dualPrices = solveDual();
+		if (dualPrices == null) {
+			return null;
+		}
+
+		double[] solution = new double[lp.getColumnCount()];
+		for (int j = 0; j < structuralCount; j++) {
+			solution[structural[j]] = dualPrices[j];
+		}
+		//each eliminated column covers whatever its row still lacks
+		for (int row = 0; row < lp.getRowCount(); row++) {
+			int column = eliminatedColumn[row];
+			if (column < 0) {
+				continue;
+			}
+			double lhs = 0.0;
+			double coefficient = 0.0;
+			for (int entry = lp.getRowStart(row); entry < lp.getRowEnd(row); entry++) {
+				if (lp.getIndex(entry) == column) {
+					coefficient = lp.getValue(entry);
+				} else {
+					lhs = lhs + lp.getValue(entry) * solution[lp.getIndex(entry)];
+				}
+			}
+			solution[column] = Math.max(0.0, (lp.getRowBound(row) - lhs) / coefficient);
+		}
+		return solution;
+	}
+
+	private static boolean isBoundRow(SparseLinearProgram lp, int row) {
+		return lp.getRowType(row) == SparseLinearProgram.GREATER_EQUAL && lp.getRowEnd(row) - lp.getRowStart(row) == 1
+				&& lp.getValue(lp.getRowStart(row)) > 0.0 && lp.getRowBound(row) == 0.0;
+	}
+
+	private boolean reduce(SparseLinearProgram lp, int[] eliminatedColumn) {
+		int columnCount = lp.getColumnCount();
+		int rowCount = lp.getRowCount();
+		boolean[] bounded = new boolean[columnCount];
+		int[] occurrences = new int[columnCount];
+		for (int row = 0; row < rowCount; row++) {
+			if (isBoundRow(lp, row)) {
+				bounded[lp.getIndex(lp.getRowStart(row))] = true;
+				continue;
+			}
+			for (int entry = lp.getRowStart(row); entry < lp.getRowEnd(row); entry++) {
+				occurrences[lp.getIndex(entry)]++;
+			}
+		}
+
+		//a column with positive cost in a single >= row only caps that row's dual variable
+		Arrays.fill(eliminatedColumn, -1);
+		boolean[] eliminated = new boolean[columnCount];
+		double[] rowUpper = new double[rowCount];
+		for (int row = 0; row < rowCount; row++) {
+			if (isBoundRow(lp, row)) {
+				continue;
+			}
+			double upper = Double.POSITIVE_INFINITY;
+			if (lp.getRowType(row) == SparseLinearProgram.GREATER_EQUAL) {
+				for (int entry = lp.getRowStart(row); entry < lp.getRowEnd(row); entry++) {
+					int column = lp.getIndex(entry);
+					double cap = lp.getObjective(column) / lp.getValue(entry);
+					if (occurrences[column] == 1 && lp.getValue(entry) > 0.0 && lp.getObjective(column) >= 0.0 && cap < upper) {
+						upper = cap;
+						eliminatedColumn[row] = column;
+					}
+				}
+			}
+			if (eliminatedColumn[row] >= 0) {
+				eliminated[eliminatedColumn[row]] = true;
+			}
+			rowUpper[row] = upper;
+		}
+
+		structural = new int[columnCount];
+		int[] position = new int[columnCount];
+		structuralCount = 0;
+		for (int column = 0; column < columnCount; column++) {
+			if (!bounded[column]) {
+				return false;
+			}
+			if (eliminated[column]) {
+				continue;
+			}
+			if (occurrences[column] == 0) {
+				//an unconstrained column stays at 0 unless its cost makes the problem unbounded
+				if (lp.getObjective(column) < 0.0) {
+					return false;
+				}
+				continue;
+			}
+			position[column] = structuralCount;
+			structural[structuralCount++] = column;
+		}
+		if (structuralCount > MAX_STRUCTURAL_COLUMNS) {
+			return false;
+		}
+		structuralCost = new double[structuralCount];
+		for (int j = 0; j < structuralCount; j++) {
+			structuralCost[j] = lp.getObjective(structural[j]);
+		}
+
+		//dual variables of = rows are free and split into a positive and a negative part,
+		//a row whose eliminated column is free of cost is always covered by it and has none
+		dualCount = 0;
+		for (int row = 0; row < rowCount; row++) {
+			if (!isBoundRow(lp, row) && rowUpper[row] > 0.0) {
+				dualCount = dualCount + (lp.getRowType(row) == SparseLinearProgram.EQUAL ? 2 : 1);
+			}
+		}
+		dualStart = new int[dualCount + 1];
+		dualIndex = new int[2 * lp.getNonZeroCount()];
+		dualValue = new double[2 * lp.getNonZeroCount()];
+		dualCost = new double[dualCount];
+		dualUpper = new double[dualCount];
+		int variable = 0;
+		int nonZeros = 0;
+		for (int row = 0; row < rowCount; row++) {
+			if (isBoundRow(lp, row) || rowUpper[row] <= 0.0) {
+				continue;
+			}
+			int parts = lp.getRowType(row) == SparseLinearProgram.EQUAL ? 2 : 1;
+			for (int part = 0; part < parts; part++) {
+				double sign = part == 0 ? 1.0 : -1.0;
+				dualUpper[variable] = rowUpper[row];
+				dualCost[variable] = sign * lp.getRowBound(row);
+				for (int entry = lp.getRowStart(row); entry < lp.getRowEnd(row); entry++) {
+					int column = lp.getIndex(entry);
+					if (column != eliminatedColumn[row] && occurrences[column] > 0) {
+						dualIndex[nonZeros] = position[column];
+						dualValue[nonZeros++] = sign * lp.getValue(entry);
+					}
+				}
+				dualStart[++variable] = nonZeros;
+			}
+		}
+		return true;
+	}
+
+	//Mehrotra predictor-corrector on: min f.v  s.t.  Q v = c, 0 <= v <= upper,
+	//with v = (dual variables, slacks of the structural rows) and f = -(row bounds).
+	//Returns the prices of the structural rows, which are the primal column values.
+	private double[] solveDual() {
+		int n = structuralCount;
+		int k = dualCount;
+		int size = k + n;
+		double[] upper = new double[size];
+		double[] cost = new double[size];
+		System.arraycopy(dualUpper, 0, upper, 0, k);
+		Arrays.fill(upper, k, size, Double.POSITIVE_INFINITY);
+		for (int v = 0; v < k; v++) {
+			cost[v] = -dualCost[v];
+		}
+
+		double[] x = new double[size];
+		double[] gap = new double[size];
+		double[] lower = new double[size];
+		double[] upperDual = new double[size];
+		double[] prices = new double[n];
+		for (int v = 0; v < size; v++) {
+			x[v] = isFinite(upper[v]) ? upper[v] / 2.0 : 1.0;
+			gap[v] = isFinite(upper[v]) ? upper[v] - x[v] : 0.0;
+			lower[v] = 1.0;
+			upperDual[v] = isFinite(upper[v]) ? 1.0 : 0.0;
+		}
+
+		double[] primalResidual = new double[n];
+		double[] upperResidual = new double[size];
+		double[] dualResidual = new double[size];
+		double[] theta = new double[size];
+		double[] reduced = new double[size];
+		double[] rhs = new double[n];
+		double[] normal = new double[n * n];
+		double[] dPrices = new double[n];
+		double[] dx = new double[size];
+		double[] dGap = new double[size];
+		double[] dLower = new double[size];
+		double[] dUpperDual = new double[size];
+		double[] affineX = new double[size];
+		double[] affineGap = new double[size];
+		double[] affineLower = new double[size];
+		double[] affineUpperDual = new double[size];
+		double[] complementLower = new double[size];
+		double[] complementUpper = new double[size];
+
+		double costScale = 1.0 + maxAbs(structuralCost);
+		double objectiveScale = 1.0 + maxAbs(cost);
+		int pairs = size;
+		for (int v = 0; v < size; v++) {
+			if (isFinite(upper[v])) {
+				pairs++;
+			}
+		}
+
+		for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+			//residuals of Q v = c, v + gap = upper and Q'prices + lower - upperDual = f
+			System.arraycopy(structuralCost, 0, primalResidual, 0, n);
+			for (int v = 0; v < k; v++) {
+				for (int entry = dualStart[v]; entry < dualStart[v + 1]; entry++) {
+					primalResidual[dualIndex[entry]] -= dualValue[entry] * x[v];
+				}
+			}
+			for (int j = 0; j < n; j++) {
+				primalResidual[j] -= x[k + j];
+			}
+			double complementarity = 0.0;
+			for (int v = 0; v < size; v++) {
+				upperResidual[v] = isFinite(upper[v]) ? upper[v] - x[v] - gap[v] : 0.0;
+				dualResidual[v] = cost[v] - transposeProduct(prices, v, k) - lower[v] + upperDual[v];
+				complementarity = complementarity + x[v] * lower[v] + gap[v] * upperDual[v];
+			}
+			double mu = complementarity / pairs;
+			if (maxAbs(primalResidual) <= TOLERANCE * costScale && maxAbs(upperResidual) <= TOLERANCE * costScale
+					&& maxAbs(dualResidual) <= TOLERANCE * objectiveScale && mu <= TOLERANCE) {
+				double[] solution = new double[n];
+				for (int j = 0; j < n; j++) {
+					solution[j] = lower[k + j];
+				}
+				return solution;
+			}
+
+			for (int v = 0; v < size; v++) {
+				double diagonal = lower[v] / x[v] + (isFinite(upper[v]) ? upperDual[v] / gap[v] : 0.0);
+				theta[v] = 1.0 / diagonal;
+			}
+			if (!factorNormalMatrix(theta, normal)) {
+				return null;
+			}
+
+			//predictor towards mu = 0
+			for (int v = 0; v < size; v++) {
+				complementLower[v] = -x[v] * lower[v];
+				complementUpper[v] = isFinite(upper[v]) ? -gap[v] * upperDual[v] : 0.0;
+			}
+			newtonStep(x, gap, lower, upperDual, upper, theta, normal, primalResidual, upperResidual, dualResidual, complementLower, complementUpper,
+					reduced, rhs, dPrices, dx, dGap, dLower, dUpperDual);
+			double primalStep = stepLength(x, dx, gap, dGap, upper, 1.0);
+			double dualStep = stepLength(lower, dLower, upperDual, dUpperDual, upper, 1.0);
+			double affineComplementarity = 0.0;
+			for (int v = 0; v < size; v++) {
+				affineComplementarity = affineComplementarity + (x[v] + primalStep * dx[v]) * (lower[v] + dualStep * dLower[v]);
+				if (isFinite(upper[v])) {
+					affineComplementarity = affineComplementarity
+							+ (gap[v] + primalStep * dGap[v]) * (upperDual[v] + dualStep * dUpperDual[v]);
+				}
+			}
+			double centering = Math.pow(affineComplementarity / pairs / mu, 3);
+
+			//corrector with the second order terms of the predictor
+			System.arraycopy(dx, 0, affineX, 0, size);
+			System.arraycopy(dGap, 0, affineGap, 0, size);
+			System.arraycopy(dLower, 0, affineLower, 0, size);
+			System.arraycopy(dUpperDual, 0, affineUpperDual, 0, size);
+			for (int v = 0; v < size; v++) {
+				complementLower[v] = centering * mu - x[v] * lower[v] - affineX[v] * affineLower[v];
+				complementUpper[v] = isFinite(upper[v])
+						? centering * mu - gap[v] * upperDual[v] - affineGap[v] * affineUpperDual[v]
+						: 0.0;
+			}
+			newtonStep(x, gap, lower, upperDual, upper, theta, normal, primalResidual, upperResidual, dualResidual, complementLower, complementUpper,
+					reduced, rhs, dPrices, dx, dGap, dLower, dUpperDual);
+			primalStep = stepLength(x, dx, gap, dGap, upper, STEP_FRACTION);
+			dualStep = stepLength(lower, dLower, upperDual, dUpperDual, upper, STEP_FRACTION);
+
+			for (int v = 0; v < size; v++) {
+				x[v] = x[v] + primalStep * dx[v];
+				lower[v] = lower[v] + dualStep * dLower[v];
+				if (isFinite(upper[v])) {
+					gap[v] = gap[v] + primalStep * dGap[v];
+					upperDual[v] = upperDual[v] + dualStep * dUpperDual[v];
+				}
+			}
+			for (int j = 0; j < n; j++) {
+				prices[j] = prices[j] + dualStep * dPrices[j];
+			}
+			if (!(mu < Double.MAX_VALUE)) {
+				return null;
+			}
+		}
+		return null;
+	}
+
+	//Solves the Newton system through the normal equations for the given complementarity targets
+	private void newtonStep(double[] x, double[] gap, double[] lower, double[] upperDual, double[] upper, double[] theta,
+			double[] normal, double[] primalResidual, double[] upperResidual, double[] dualResidual, double[] complementLower,
+			double[] complementUpper, double[] reduced, double[] rhs, double[] dPrices, double[] dx, double[] dGap, double[] dLower,
+			double[] dUpperDual) {
+		int n = structuralCount;
+		int k = dualCount;
+		int size = k + n;
+		System.arraycopy(primalResidual, 0, rhs, 0, n);
+		for (int v = 0; v < size; v++) {
+			reduced[v] = dualResidual[v] - complementLower[v] / x[v];
+			if (isFinite(upper[v])) {
+				reduced[v] = reduced[v] + (complementUpper[v] - upperDual[v] * upperResidual[v]) / gap[v];
+			}
+			double scaled = theta[v] * reduced[v];
+			if (v < k) {
+				for (int entry = dualStart[v]; entry < dualStart[v + 1]; entry++) {
+					rhs[dualIndex[entry]] += dualValue[entry] * scaled;
+				}
+			} else {
+				rhs[v - k] += scaled;
+			}
+		}
+		choleskySolve(normal, rhs, dPrices);
+		for (int v = 0; v < size; v++) {
+			dx[v] = theta[v] * (transposeProduct(dPrices, v, k) - reduced[v]);
+			dLower[v] = (complementLower[v] - lower[v] * dx[v]) / x[v];
+			if (isFinite(upper[v])) {
+				dGap[v] = upperResidual[v] - dx[v];
+				dUpperDual[v] = (complementUpper[v] - upperDual[v] * dGap[v]) / gap[v];
+			} else {
+				dGap[v] = 0.0;
+				dUpperDual[v] = 0.0;
+			}
+		}
+	}
+
+	private double transposeProduct(double[] prices, int v, int k) {
+		if (v >= k) {
+			return prices[v - k];
+		}
+		double sum = 0.0;
+		for (int entry = dualStart[v]; entry < dualStart[v + 1]; entry++) {
+			sum = sum + dualValue[entry] * prices[dualIndex[entry]];
+		}
+		return sum;
+	}
+
+	//Q diag(theta) Q' in place as its lower Cholesky factor; tiny pivots are replaced so their direction is dropped
+	private boolean factorNormalMatrix(double[] theta, double[] normal) {
+		int n = structuralCount;
+		int k = dualCount;
+		Arrays.fill(normal, 0.0);
+		for (int v = 0; v < k; v++) {
+			for (int a = dualStart[v]; a < dualStart[v + 1]; a++) {
+				double scaled = theta[v] * dualValue[a];
+				int row = dualIndex[a];
+				for (int b = dualStart[v]; b <= a; b++) {
+					int column = dualIndex[b];
+					if (column <= row) {
+						normal[row * n + column] += scaled * dualValue[b];
+					} else {
+						normal[column * n + row] += scaled * dualValue[b];
+					}
+				}
+			}
+		}
+		double maxDiagonal = 0.0;
+		for (int j = 0; j < n; j++) {
+			normal[j * n + j] += theta[k + j];
+			maxDiagonal = Math.max(maxDiagonal, normal[j * n + j]);
+		}
+		if (!(maxDiagonal < Double.POSITIVE_INFINITY)) {
+			return false;
+		}
+		for (int j = 0; j < n; j++) {
+			double pivot = normal[j * n + j];
+			for (int p = 0; p < j; p++) {
+				pivot = pivot - normal[j * n + p] * normal[j * n + p];
+			}
+			if (pivot <= 1e-30 * maxDiagonal) {
+				pivot = 1e128;
+			}
+			double root = Math.sqrt(pivot);
+			normal[j * n + j] = root;
+			for (int i = j + 1; i < n; i++) {
+				double sum = normal[i * n + j];
+				for (int p = 0; p < j; p++) {
+					sum = sum - normal[i * n + p] * normal[j * n + p];
+				}
+				normal[i * n + j] = sum / root;
+			}
+		}
+		return true;
+	}
+
+	private void choleskySolve(double[] factor, double[] rhs, double[] result) {
+		int n = structuralCount;
+		for (int i = 0; i < n; i++) {
+			double sum = rhs[i];
+			for (int p = 0; p < i; p++) {
+				sum = sum - factor[i * n + p] * result[p];
+			}
+			result[i] = sum / factor[i * n + i];
+		}
+		for (int i = n - 1; i >= 0; i--) {
+			double sum = result[i];
+			for (int p = i + 1; p < n; p++) {
+				sum = sum - factor[p * n + i] * result[p];
+			}
+			result[i] = sum / factor[i * n + i];
+		}
+	}
+
+	//Largest step up to 1 that keeps values and gaps of finite bounds positive
+	private static double stepLength(double[] values, double[] steps, double[] gaps, double[] gapSteps, double[] upper,
+			double fraction) {
+		double step = 1.0;
+		for (int v = 0; v < values.length; v++) {
+			if (steps[v] < 0.0) {
+				step = Math.min(step, -fraction * values[v] / steps[v]);
+			}
+			if (isFinite(upper[v]) && gapSteps[v] < 0.0) {
+				step = Math.min(step, -fraction * gaps[v] / gapSteps[v]);
+			}
+		}
+		return step;
+	}
+
+	private static boolean isFinite(double value) {
+		return value < Double.POSITIVE_INFINITY;
+	}
+
+	private static double maxAbs(double[] values) {
+		double max = 0.0;
+		for (double value : values) {
+			max = Math.max(max, Math.abs(value));
+		}
+		return max;
+	}
+
+	@Override
+	public String getName() {
+		return "interior";
+	}
+}
@@ -0,0 +1,203 @@
+package project;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import genius.core.Bid;
+
+public class IslandModel {
+
+	//Migration topologies: each island sends to the next one, or to all others
+	public static final int RING = 0;
+	public static final int ALL = 1;
+
+	//Sub-populations that run the usual GA loop independently, one per core, and every migrationInterval
+	//generations send copies of their elite to their neighbours over lock-free channels.
+	//Generations run in lock step: islands send at the end of a generation and the calling thread hands
+	//the migrants over before the next one, so runs are reproducible for a seed whatever the thread timing.
+	private final GeneticAlgorithm[] islands;
+	private final int issueCount;
+	private final int migrationInterval;
+	private final int migrants;
+	private final MigrationChannel[][] outbound;
+	private final MigrationChannel[][] inbound;
+	private final int[][] eliteGenes;
+	private final int[] migrantGenes;
+	private final ForkJoinPool pool;
+	private AgentMetrics metrics = AgentMetrics.DISABLED;
+	private long generation = 0;
+
+	//A single island is the plain GA and runs on the calling thread
+	public IslandModel(GeneticAlgorithm geneticAlgorithm) {
+		this(new GeneticAlgorithm[] { geneticAlgorithm }, Integer.MAX_VALUE, 0, RING, null);
+	}
+
+	public IslandModel(GeneticAlgorithm[] islands, int migrationInterval, int migrants, int topology, ForkJoinPool pool) {
+		this.islands = islands;
+		this.issueCount = islands[0].getCodec().getIssueCount();
+		this.migrationInterval = Math.max(migrationInterval, 1);
+		this.migrants = migrants;
+		this.pool = pool;
+		int count = islands.length;
+		int degree = count == 1 ? 0 : topology == ALL ? count - 1 : 1;
+		outbound = new MigrationChannel[count][degree];
+		inbound = new MigrationChannel[count][degree];
+		int[] inboundCount = new int[count];
+		for (int from = 0; from < count; from++) {
+			for (int edge = 0; edge < degree; edge++) {
+				int to = (from + 1 + edge) % count;
+				//room for two migrations, so a slow consumer loses migrants instead of blocking
+				MigrationChannel channel = new MigrationChannel(issueCount, 2 * Math.max(migrants, 1));
+				outbound[from][edge] = channel;
+				inbound[to][inboundCount[to]++] = channel;
+			}
+		}
+		eliteGenes = new int[count][migrants * issueCount];
+		migrantGenes = new int[issueCount];
+	}
+
+	//Islands with their own random streams, derived from the seed; island 0 uses the seed itself
+	public static IslandModel create(GenomeCodec codec, int islandCount, int popSize, int selectionPool, double elitism,
+			double crossoverRate, double mutationRate, int selection, long seed, int migrationInterval, int migrants,
+			int topology) {
+		GeneticAlgorithm[] islands = new GeneticAlgorithm[Math.max(islandCount, 1)];
+		for (int i = 0; i < islands.length; i++) {
+			islands[i] = new GeneticAlgorithm(codec, popSize, selectionPool, elitism, crossoverRate, mutationRate, selection,
+					new Random(seed + i * 0x9E3779B97F4A7C15L));
+		}
+		if (islands.length == 1) {
+			return new IslandModel(islands[0]);
+		}
+		return new IslandModel(islands, migrationInterval, migrants, topology, ForkJoinPool.commonPool());
+	}
+
+	public static int getTopology(String name) {
+		return "all".equals(name) ? ALL : RING;
+	}
+
+	//One generation on every island, island 0 on the calling thread
+	public void evolve(GeneticAlgorithm.FitnessFunction fitnessFunction) {
+		final boolean migrate = islands.length > 1 && (generation + 1) % migrationInterval == 0;
+		if (islands.length == 1) {
+			islands[0].evolve(fitnessFunction);
+		} else {
+			receiveMigrants();
+			IslandTask[] tasks = new IslandTask[islands.length];
+			for (int i = 1; i < islands.length; i++) {
+				tasks[i] = new IslandTask(i, fitnessFunction, migrate);
+				if (pool != null) {
+					pool.execute(tasks[i]);
+				}
+			}
+			evolveIsland(0, fitnessFunction, migrate);
+			for (int i = 1; i < islands.length; i++) {
+				if (pool == null) {
+					tasks[i].invoke();
+				} else {
+					tasks[i].join();
+				}
+			}
+		}
+		generation++;
+	}
+
+	//The calling thread is the only consumer of every channel
+	private void receiveMigrants() {
+		for (int island = 0; island < islands.length; island++) {
+			for (MigrationChannel channel : inbound[island]) {
+				while (channel.poll(migrantGenes, 0)) {
+					islands[island].addMigrant(migrantGenes, 0);
+				}
+			}
+		}
+	}
+
+	//Each island is the only producer of its outbound channels
+	private void evolveIsland(int island, GeneticAlgorithm.FitnessFunction fitnessFunction, boolean migrate) {
+		GeneticAlgorithm geneticAlgorithm = islands[island];
+		geneticAlgorithm.evolve(fitnessFunction);
+		if (migrate) {
+			int count = geneticAlgorithm.copyElite(migrants, eliteGenes[island]);
+			for (MigrationChannel channel : outbound[island]) {
+				for (int i = 0; i < count; i++) {
+					channel.offer(eliteGenes[island], i * issueCount);
+				}
+			}
+			metrics.add(AgentMetrics.MIGRANTS, count * outbound[island].length);
+		}
+	}
+
+	private class IslandTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int island;
+		private final GeneticAlgorithm.FitnessFunction fitnessFunction;
+		private final boolean migrate;
+
+		IslandTask(int island, GeneticAlgorithm.FitnessFunction fitnessFunction, boolean migrate) {
+			this.island = island;
+			this.fitnessFunction = fitnessFunction;
+			this.migrate = migrate;
+		}
+
+		@Override
+		protected void compute() {
+			evolveIsland(island, fitnessFunction, migrate);
+		}
+	}
+
+	//The island holding the fittest genome, the first one on ties
+	public GeneticAlgorithm getBest() {
+		GeneticAlgorithm best = islands[0];
+		double bestFitness = best.getBestFitness();
+		for (int i = 1; i < islands.length; i++) {
+			double fitness = islands[i].getBestFitness();
+			if (fitness > bestFitness) {
+				best = islands[i];
+				bestFitness = fitness;
+			}
+		}
+		return best;
+	}
+
+	public void seed(List<Bid> bids) {
+		for (GeneticAlgorithm island : islands) {
+			island.seed(bids);
+		}
+	}
+
+	public void seed(int[] genes, int count) {
+		for (GeneticAlgorithm island : islands) {
+			island.seed(genes, count);
+		}
+	}
+
+	public void setImmigrants(int[] genes, int count) {
+		for (GeneticAlgorithm island : islands) {
+			island.setImmigrants(genes, count);
+		}
+	}
+
+	public void setFitnessEvaluator(FitnessEvaluator fitnessEvaluator) {
+		for (GeneticAlgorithm island : islands) {
+			island.setFitnessEvaluator(fitnessEvaluator);
+		}
+	}
+
+	public void setMetrics(AgentMetrics metrics) {
+		this.metrics = metrics;
+		for (GeneticAlgorithm island : islands) {
+			island.setMetrics(metrics);
+		}
+	}
+
+	public int getIslandCount() {
+		return islands.length;
+	}
+
+	public GeneticAlgorithm getIsland(int island) {
+		return islands[island];
+	}
+}
@@ -2,138 +2,153 @@ package project;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 
 import genius.core.Bid;
-import genius.core.issue.Issue;
-import genius.core.issue.IssueDiscrete;
-import genius.core.issue.ValueDiscrete;
 import genius.core.utility.AbstractUtilitySpace;
-import genius.core.utility.AdditiveUtilitySpace;
 
 public class JohnnyOpponentModel {
 
 	//Opponent Model
-	//JohnyBlack
-	private HashMap<String, HashMap<String, Integer>> opponentFrequency = new HashMap<String, HashMap<String, Integer>>();
-	private HashMap<String, HashMap<String, Double>> opponentRank = new HashMap<String, HashMap<String, Double>>();
-	private List<Double> opponentWeight = new ArrayList<Double>();
+	//JohnyBlack, kept incrementally in flat arrays indexed like the codec
+	private final GenomeCodec codec;
+	private final int[] opponentFrequency;
+	//values of each issue ordered by frequency (highest first) and their positions
+	private final int[] frequencyOrder;
+	private final int[] orderPosition;
+	private final double[] opponentRank;
+	//sum of squared frequencies per issue, the unnormalised issue weight
+	private final long[] frequencySquares;
+	private long totalFrequencySquares = 0;
+	private final double[] opponentWeight;
+	private final int[] bidGenes;
 	private int opponentBidCount = 0;
 
 	public JohnnyOpponentModel(AbstractUtilitySpace utilitySpace) {
-		AdditiveUtilitySpace additiveUtilitySpace = (AdditiveUtilitySpace) utilitySpace;
-
-		List< Issue > issues = additiveUtilitySpace.getDomain().getIssues();
-
-		for (Issue issue : issues) {
-			HashMap<String, Integer> initFrequency = new HashMap<String, Integer>();
-			HashMap<String, Double> initRank = new HashMap<String, Double>();
-			opponentWeight.add(1.0 / (double) issues.size());
-			
-			IssueDiscrete issueDiscrete = (IssueDiscrete) issue;
-			for (ValueDiscrete valueDiscrete : issueDiscrete.getValues()) {
-		    	initFrequency.put(valueDiscrete.getValue(), 0);
-		    	initRank.put(valueDiscrete.getValue(), 1.0);
+		this(new GenomeCodec(utilitySpace.getDomain()));
+	}
+
+	public JohnnyOpponentModel(GenomeCodec codec) {
+		this.codec = codec;
+		int issueCount = codec.getIssueCount();
+		int valueCount = codec.getTotalValueCount();
+		opponentFrequency = new int[valueCount];
+		frequencyOrder = new int[valueCount];
+		orderPosition = new int[valueCount];
+		opponentRank = new double[valueCount];
+		frequencySquares = new long[issueCount];
+		opponentWeight = new double[issueCount];
+		bidGenes = new int[issueCount];
+
+		for (int i = 0; i < issueCount; i++) {
+			opponentWeight[i] = 1.0 / (double) issueCount;
+			for (int v = 0; v < codec.getValueCount(i); v++) {
+				frequencyOrder[codec.getOffset(i) + v] = v;
+				orderPosition[codec.getOffset(i) + v] = v;
+				opponentRank[codec.getOffset(i) + v] = 1.0;
 			}
-		    opponentFrequency.put(issue.getName(), initFrequency);
-		    opponentRank.put(issue.getName(), initRank);
 		}
 	}
-	
+
 	public void updateOpponentPreference(Bid opponentBid) {
-		
-		//adding frequency
-		opponentFrequency = addOpponentFrequency(opponentFrequency, opponentBid);
-		
-		//sorting
-		opponentFrequency = sortOpponentFrequency(opponentFrequency);
-
-		//ranking options & compute opponent issue weight
-		double sumWeightIssue = 0;
-		List<Double> weightIssueList = new ArrayList<Double>();
-		for (Entry<String, HashMap<String, Integer>> issue : opponentFrequency.entrySet()) {
-			HashMap<String, Integer> options = issue.getValue();
-			int optionNum = options.size();
-			int rank = 0;
-			HashMap<String, Double> issueRank = new LinkedHashMap<>();
-			
-			double weightIssue = 0;
-			int lastFrequency = 0;
-			int sameRank = 0;
-	        for (Entry<String, Integer> entry : options.entrySet()) {
-	        	if(lastFrequency == entry.getValue()) {
-	            	sameRank++;
-	            }
-	            else {
-	            	rank = rank + 1 + sameRank;
-	            	sameRank = 0;
-	            	lastFrequency = entry.getValue();
-	            }
-	            double calculated_value = (double)(optionNum - rank + 1) / (double) optionNum;
-	            issueRank.put(entry.getKey(), calculated_value);
-	            
-	            weightIssue = weightIssue + Math.pow((double) entry.getValue() / (double) opponentBidCount , 2);
-	        }
-	        //For Normalise
-	        sumWeightIssue = sumWeightIssue + weightIssue;
-	        weightIssueList.add(weightIssue);
-	        opponentRank.put(issue.getKey().toString(), issueRank);
-		}
-		
-		//Normalise value
-		for (int i = 0; i < weightIssueList.size(); i++) {
-			weightIssueList.set(i, weightIssueList.get(i) / sumWeightIssue);
-		}
+		codec.encode(opponentBid, bidGenes, 0);
+		updateOpponentPreference(bidGenes, 0);
 	}
-	
-	private HashMap<String, HashMap<String, Integer>> addOpponentFrequency(HashMap<String, HashMap<String, Integer>> opponentFrequency, Bid opponentBid) {
-		for (Issue issue : opponentBid.getIssues()) {
-			HashMap<String, Integer> frequency = opponentFrequency.get(issue.getName());
-			frequency.put(opponentBid.getValue(issue).toString(), frequency.get(opponentBid.getValue(issue).toString()) + 1);
-			opponentFrequency.put(issue.getName(), frequency);
+
+	//Adds one bid: only the chosen value and the values it overtakes change rank
+	public void updateOpponentPreference(int[] genes, int offset) {
+		int issueCount = codec.getIssueCount();
+		for (int i = 0; i < issueCount; i++) {
+			int base = codec.getOffset(i);
+			int optionNum = codec.getValueCount(i);
+			int value = genes[offset + i];
+			int frequency = opponentFrequency[base + value];
+
+			//move the value to the front of its equal-frequency group
+			int position = orderPosition[base + value];
+			int groupStart = position;
+			while (groupStart > 0 && opponentFrequency[base + frequencyOrder[base + groupStart - 1]] == frequency) {
+				groupStart--;
+			}
+			int other = frequencyOrder[base + groupStart];
+			frequencyOrder[base + groupStart] = value;
+			frequencyOrder[base + position] = other;
+			orderPosition[base + value] = groupStart;
+			orderPosition[base + other] = position;
+
+			opponentFrequency[base + value] = frequency + 1;
+			frequencySquares[i] = frequencySquares[i] + 2L * frequency + 1;
+			totalFrequencySquares = totalFrequencySquares + 2L * frequency + 1;
+
+			//ranking options: ties share the rank of the group's first position
+			if (groupStart > 0 && opponentFrequency[base + frequencyOrder[base + groupStart - 1]] == frequency + 1) {
+				opponentRank[base + value] = opponentRank[base + frequencyOrder[base + groupStart - 1]];
+			} else {
+				opponentRank[base + value] = getRankValue(groupStart + 1, optionNum);
+			}
+			double overtakenRank = getRankValue(groupStart + 2, optionNum);
+			for (int p = groupStart + 1; p < optionNum && opponentFrequency[base + frequencyOrder[base + p]] == frequency; p++) {
+				opponentRank[base + frequencyOrder[base + p]] = overtakenRank;
+			}
 		}
 		//add count for compute item's weight
 		opponentBidCount++;
-		return opponentFrequency;
-	}
-	
-	private HashMap<String, HashMap<String, Integer>> sortOpponentFrequency(HashMap<String, HashMap<String, Integer>> opponentFrequency) {
-		//System.out.println("unsorted:" + opponentFrequency.toString());
-		HashMap<String, HashMap<String, Integer>> sortFrequency = new HashMap<String, HashMap<String, Integer>>();
-		for (Entry<String, HashMap<String, Integer>> issue : opponentFrequency.entrySet()) {
-			Map<String, Integer> options = issue.getValue();
-			List<Entry<String, Integer>> list = new ArrayList<>(options.entrySet());
-			list.sort(Entry.<String, Integer>comparingByValue().reversed());
-			
-			HashMap<String, Integer> result = new LinkedHashMap<>();
-	        for (Entry<String, Integer> entry : list) {
-	            result.put(entry.getKey(), entry.getValue());
-	        }
-	        sortFrequency.put(issue.getKey().toString(), result);
+
+		//Normalise issue weight
+		for (int i = 0; i < issueCount; i++) {
+			opponentWeight[i] = (double) frequencySquares[i] / (double) totalFrequencySquares;
 		}
-		return sortFrequency;
 	}
-	
+
+	private static double getRankValue(int rank, int optionNum) {
+		return (double) (optionNum - rank + 1) / (double) optionNum;
+	}
+
 	public double getOpponentUtility(Bid opponentBid) {
+		codec.encode(opponentBid, bidGenes, 0);
+		return getOpponentUtility(bidGenes, 0);
+	}
+
+	public double getOpponentUtility(int[] genes, int offset) {
 		double calculatedUtility = 0;
-		int i = 0;
-		for (Issue issue : opponentBid.getIssues()) {
-			HashMap<String, Double> rank = opponentRank.get(issue.getName());
-			calculatedUtility = calculatedUtility + (rank.get(opponentBid.getValue(issue).toString()) * opponentWeight.get(i));
-			i++;
+		for (int i = 0; i < codec.getIssueCount(); i++) {
+			calculatedUtility = calculatedUtility + (opponentRank[codec.getOffset(i) + genes[offset + i]] * opponentWeight[i]);
 		}
 		return calculatedUtility;
 	}
-	
+
+	//Flat rank and weight tables indexed like the codec
+	public CompiledUtilitySpace compile() {
+		int issueCount = codec.getIssueCount();
+		int[] offsets = new int[issueCount];
+		for (int i = 0; i < issueCount; i++) {
+			offsets[i] = codec.getOffset(i);
+		}
+		return new CompiledUtilitySpace(offsets, opponentWeight.clone(), opponentRank.clone());
+	}
+
 	public HashMap<String, HashMap<String, Double>> getOpponentRank() {
-		return opponentRank;
+		HashMap<String, HashMap<String, Double>> rank = new HashMap<String, HashMap<String, Double>>();
+		for (int i = 0; i < codec.getIssueCount(); i++) {
+			HashMap<String, Double> issueRank = new HashMap<String, Double>();
+			for (int v = 0; v < codec.getValueCount(i); v++) {
+				issueRank.put(codec.getValue(i, v).toString(), opponentRank[codec.getOffset(i) + v]);
+			}
+			rank.put(codec.getIssue(i).getName(), issueRank);
+		}
+		return rank;
 	}
 
 	public List<Double> getOpponentWeight() {
-		return opponentWeight;
+		List<Double> weight = new ArrayList<Double>();
+		for (double issueWeight : opponentWeight) {
+			weight.add(issueWeight);
+		}
+		return weight;
+	}
+
+	public int getOpponentFrequency(int issue, int value) {
+		return opponentFrequency[codec.getOffset(issue) + value];
 	}
 
 	public int getOpponentBidCount() {
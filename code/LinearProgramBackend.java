@@ -0,0 +1,47 @@
+package project;
+
+public interface LinearProgramBackend {
+
+	//Optimal column values of the minimisation problem, or null if none was found
+	double[] solve(SparseLinearProgram lp);
+
+	String getName();
+
+	//-Dgaagent.lpBackend=scp|interior|auto, SCPSolver by default; auto solves in Java and falls back to SCPSolver
+	static LinearProgramBackend fromSystemProperties() {
+		return forName(System.getProperty("gaagent.lpBackend", "scp"));
+	}
+
+	static LinearProgramBackend forName(String name) {
+		if ("interior".equals(name)) {
+			return new InteriorPointBackend();
+		}
+		if ("auto".equals(name)) {
+			return new AutoBackend();
+		}
+		return new ScpSolverBackend();
+	}
+
+	//Pure-Java interior point, SCPSolver for problems it declines or does not solve
+	class AutoBackend implements LinearProgramBackend {
+		private final InteriorPointBackend interior = new InteriorPointBackend();
+		private ScpSolverBackend scp;
+
+		@Override
+		public double[] solve(SparseLinearProgram lp) {
+			double[] solution = interior.solve(lp);
+			if (solution != null) {
+				return solution;
+			}
+			if (scp == null) {
+				scp = new ScpSolverBackend();
+			}
+			return scp.solve(lp);
+		}
+
+		@Override
+		public String getName() {
+			return "auto";
+		}
+	}
+}
@@ -5,7 +5,10 @@ import java.util.List;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 
 import genius.core.Bid;
 import genius.core.Domain;
@@ -14,24 +17,53 @@ import genius.core.issue.IssueDiscrete;
 import genius.core.issue.Objective;
 import genius.core.issue.ValueDiscrete;
 import genius.core.uncertainty.BidRanking;
-import genius.core.uncertainty.OutcomeComparison;
 import genius.core.utility.AdditiveUtilitySpace;
 import genius.core.utility.Evaluator;
 import genius.core.utility.EvaluatorDiscrete;
-import scpsolver.constraints.LinearBiggerThanEqualsConstraint;
-import scpsolver.constraints.LinearEqualsConstraint;
-import scpsolver.lpsolver.LinearProgramSolver;
-import scpsolver.lpsolver.SolverFactory;
-import scpsolver.problems.LinearProgram;
 
 public class LinearProgrammingUtilitySpaceEstimator {
 	private AdditiveUtilitySpace u;
-	private int constraintNum = 1;
+	//column of (issue, value) is codec offset + value index
+	private GenomeCodec codec;
+	private int[] bid1Genes;
+	private int[] bid2Genes;
+	private int[] rowIndex;
+	private double[] rowValue;
+	//problem kept between estimates so a growing ranking only adds rows
+	private SparseLinearProgram lp;
+	private final Set<String> comparisonKeys = new HashSet<String>();
+	//comparisons that differ in the same values share one row, weighted by their count
+	private final Map<String, Integer> rowColumns = new HashMap<String, Integer>();
+	private boolean violatedRowWeighted;
+	//rankings with more comparisons are estimated from an evenly spaced sample of their bids
+	private int maxComparisons = Integer.getInteger("gaagent.lpMaxComparisons", 1 << 14);
+	private int comparisonRowCount;
+	private long bestBidKey;
+	private double[] lastSolution;
+	private AgentMetrics metrics = AgentMetrics.DISABLED;
+	private LinearProgramBackend backend = LinearProgramBackend.fromSystemProperties();
 	List<String> variableName = new ArrayList<String>();
-	double[] variableValue;
 	int variableXSize = 0;
 
 	public LinearProgrammingUtilitySpaceEstimator(Domain d) {
+		int noIssues = d.getIssues().size();
+		for (Issue i : d.getIssues()) {
+			IssueDiscrete issue = (IssueDiscrete) i;
+			for (ValueDiscrete value : issue.getValues()) {
+				variableName.add("w"+i.getNumber()+"x"+value.toString());
+				variableXSize++;
+			}
+		}
+
+		u = createUtilitySpace(d);
+		codec = new GenomeCodec(d);
+		bid1Genes = new int[noIssues];
+		bid2Genes = new int[noIssues];
+		rowIndex = new int[2 * noIssues + 1];
+		rowValue = new double[2 * noIssues + 1];
+	}
+
+	private static AdditiveUtilitySpace createUtilitySpace(Domain d) {
 		int noIssues = d.getIssues().size();
 		Map<Objective, Evaluator> evaluatorMap = new HashMap<Objective, Evaluator>();
 		
@@ -41,14 +73,11 @@ public class LinearProgrammingUtilitySpaceEstimator {
 			evaluator.setWeight(1.0 / noIssues);
 			for (ValueDiscrete value : issue.getValues()) {
 				evaluator.setEvaluationDouble(value, 0.0);
-				variableName.add("w"+i.getNumber()+"x"+value.toString());
-				variableXSize++;
 			}
 			
 			evaluatorMap.put(issue, evaluator);
 		}
-
-		u = new AdditiveUtilitySpace(d, evaluatorMap);
+		return new AdditiveUtilitySpace(d, evaluatorMap);
 	}
 
 	public void setWeight(Issue i, double weight) {
@@ -71,8 +100,63 @@ public class LinearProgrammingUtilitySpaceEstimator {
 	}
 
 	public void estimateUsingBidRanks(BidRanking r) {
-		double[] solution = getLinearSolution(r);
-		System.out.println("Solution:"+Arrays.toString(solution));
+		long buildStart = metrics.start();
+		lp = new SparseLinearProgram();
+		comparisonKeys.clear();
+		rowColumns.clear();
+		//create x variable constraints
+		for(int index = 0 ; index < variableXSize ; index++) {
+			lp.addBoundRow(lp.addColumn(0.0));
+		}
+		addComparisons(getSampledBidOrder(r));
+		comparisonRowCount = lp.getRowCount();
+		addBestBidConstraint(r);
+		
+		applySolution(getLinearSolution(buildStart));
+	}
+	
+	//Adds only comparisons not seen before; returns false if the estimate is unchanged
+	public boolean updateUsingBidRanks(BidRanking r) {
+		if(lp == null) {
+			estimateUsingBidRanks(r);
+			return true;
+		}
+		//sampled positions move as the ranking grows, so a sampled problem is rebuilt
+		if(r.getSize() - 1 > maxComparisons) {
+			estimateUsingBidRanks(r);
+			return true;
+		}
+		long buildStart = metrics.start();
+		lp.truncate(comparisonRowCount);
+		int firstNewRow = lp.getRowCount();
+		int added = addComparisons(r.getBidOrder());
+		comparisonRowCount = lp.getRowCount();
+		long previousBestBid = bestBidKey;
+		addBestBidConstraint(r);
+		if(added == 0 && previousBestBid == bestBidKey) {
+			return false;
+		}
+		
+		//the previous optimum stays optimal if it already satisfies every new row with z = 0
+		//and no row it violates gained weight
+		if(previousBestBid == bestBidKey && !violatedRowWeighted && isSatisfied(lastSolution, firstNewRow, comparisonRowCount)) {
+			metrics.stop(AgentMetrics.LP_BUILD, buildStart);
+			metrics.increment(AgentMetrics.LP_REUSED);
+			if(metrics.isTracing()) {
+				metrics.trace("Ranking grew by "+added+" comparisons, previous solution still optimal");
+			}
+			applySolution(Arrays.copyOf(lastSolution, lp.getColumnCount()));
+		} else {
+			applySolution(getLinearSolution(buildStart));
+		}
+		return true;
+	}
+	
+	private void applySolution(double[] solution) {
+		lastSolution = solution.clone();
+		if(metrics.isTracing()) {
+			metrics.trace("Solution:"+Arrays.toString(solution));
+		}
 		//adjusting negative number
 		double negNum = 0.0;
 		for (int index = 0 ; index < variableXSize ; index++) {
@@ -84,92 +168,165 @@ public class LinearProgrammingUtilitySpaceEstimator {
 			for (int index = 0 ; index < variableXSize ; index++) {
 				solution[index] = solution[index] + Math.abs(negNum);
 			}
-			System.out.println("Negative x(s) found >> Solution:"+Arrays.toString(solution));
+			if(metrics.isTracing()) {
+				metrics.trace("Negative x(s) found >> Solution:"+Arrays.toString(solution));
+			}
 		}
 		
-		for (int index = 0 ; index < variableXSize ; index++) {
-			for (Issue i : getIssues()) {
-				IssueDiscrete issue = (IssueDiscrete) i;
-				for (ValueDiscrete value : issue.getValues()) {
-					int indexVar = variableName.indexOf("w"+i.getNumber()+"x"+value.toString());
-					if(solution[indexVar]<0) {
-						System.out.println(solution[indexVar]);
-					}
-					setUtility(i,value,solution[indexVar]);
-				}
+		//fill a fresh space so a published estimate is never modified
+		u = createUtilitySpace(getDomain());
+		for (int issue = 0 ; issue < codec.getIssueCount() ; issue++) {
+			IssueDiscrete i = codec.getIssue(issue);
+			for (int value = 0 ; value < codec.getValueCount(issue) ; value++) {
+				int indexVar = codec.getOffset(issue) + value;
+				setUtility(i,codec.getValue(issue, value),solution[indexVar]);
 			}
 		}
 		
 		normalizeWeightsByMaxValues();
 	}
 	
-	private double[] getLinearSolution(BidRanking r) {
-		variableValue = new double[variableXSize+r.getAmountOfComparisons()];
-		
-		int index;
-		//set initial for constraint
-		for(index = 0 ; index < variableValue.length ; index++) {
-		variableValue[index] = 0.0;
+	private double[] getLinearSolution(long buildStart) {
+		if(metrics.isTracing()) {
+			metrics.trace(variableName.toString());
+			metrics.trace("Variable: "+variableXSize+" columns: "+lp.getColumnCount()+" constraintsNum: "+lp.getRowCount()+" nonZeros: "+lp.getNonZeroCount());
 		}
-		
-		//objective function
-		double[] zValue = variableValue.clone();
-		for(index = variableXSize ; index < variableValue.length ; index++) {
-			zValue[index] = 1.0;
+		long time = metrics.stop(AgentMetrics.LP_BUILD, buildStart);
+		double[] sol = backend.solve(lp);
+		//a backend may decline a problem (interior point above its column limit or without convergence);
+		//SCPSolver takes it over unless it already had it
+		if(sol == null && !(backend instanceof ScpSolverBackend || backend instanceof LinearProgramBackend.AutoBackend)) {
+			metrics.trace("LP backend "+backend.getName()+" declined the problem, solving with SCPSolver");
+			sol = new ScpSolverBackend().solve(lp);
 		}
-		
-		LinearProgram lp = new LinearProgram(zValue);
-		System.out.println(variableName);
-		System.out.println("Objective value"+Arrays.toString(zValue));
-		
-		//create x variable constraints
-		for(index = 0 ; index < variableXSize ; index++) {
-			double[] createConstraints = variableValue.clone();
-			createConstraints[index] = 1.0;
-			lp.addConstraint(new LinearBiggerThanEqualsConstraint(createConstraints, 0.0, "c"+constraintNum));
-			//System.out.println("C"+Arrays.toString(createConstraints));
-			constraintNum++;
+		if(sol == null) {
+			throw new IllegalStateException("LP backend "+backend.getName()+" found no solution for "+lp.getColumnCount()
+					+" columns and "+lp.getRowCount()+" rows");
 		}
-		
-		// z constraint + comparing constraint
-		int zNum = 1;
-		index = variableXSize;
-		for (OutcomeComparison comparison : r.getPairwiseComparisons()) {
-			double[] createConstraints = variableValue.clone();
-			createConstraints[index] = 1.0;
-			index++;
-			variableName.add("z"+zNum);
-			zNum++;
-			lp.addConstraint(new LinearBiggerThanEqualsConstraint(createConstraints, 0.0, "c"+constraintNum));
-			//System.out.println("C"+Arrays.toString(createConstraints));
-			constraintNum++;
-			for(Issue i : getIssues()) {
-				int indexValueBid1 = variableName.indexOf("w"+i.getNumber()+"x"+comparison.getBid1().getValue(i).toString());
-				int indexValueBid2 = variableName.indexOf("w"+i.getNumber()+"x"+comparison.getBid2().getValue(i).toString());
-				createConstraints[indexValueBid1] = createConstraints[indexValueBid1] + -1.0;
-				createConstraints[indexValueBid2] = createConstraints[indexValueBid2] + 1.0;
+		metrics.stop(AgentMetrics.LP_SOLVE, time);
+		metrics.increment(AgentMetrics.LP_SOLVES);
+		metrics.add(AgentMetrics.LP_ROWS, lp.getRowCount());
+		return sol;
+	}
+	
+	//Evenly spaced bids including both ends when the ranking has more than maxComparisons comparisons;
+	//consecutive sampled bids are still ordered, so every sampled comparison holds in the full ranking
+	private List<Bid> getSampledBidOrder(BidRanking r) {
+		List<Bid> bidOrder = r.getBidOrder();
+		int comparisons = r.getSize() - 1;
+		if(comparisons <= maxComparisons) {
+			return bidOrder;
+		}
+		List<Bid> sample = new ArrayList<Bid>(maxComparisons + 1);
+		for(int index = 0 ; index <= maxComparisons ; index++) {
+			sample.add(bidOrder.get((int) ((long) index * comparisons / maxComparisons)));
+		}
+		if(metrics.isTracing()) {
+			metrics.trace("Ranking of "+r.getSize()+" bids sampled to "+sample.size());
+		}
+		return sample;
+	}
+	
+	// z constraint + comparing constraint: z + x(bid2) - x(bid1) >= 0
+	//streams consecutive bids of the ranking, each bid is encoded once
+	private int addComparisons(List<Bid> bidOrder) {
+		int issueCount = codec.getIssueCount();
+		int added = 0;
+		violatedRowWeighted = false;
+		Iterator<Bid> bids = bidOrder.iterator();
+		if(!bids.hasNext()) {
+			return 0;
+		}
+		codec.encode(bids.next(), bid2Genes, 0);
+		while(bids.hasNext()) {
+			int[] genes = bid1Genes;
+			bid1Genes = bid2Genes;
+			bid2Genes = genes;
+			codec.encode(bids.next(), bid2Genes, 0);
+			if(!comparisonKeys.add(codec.getKey(bid1Genes, 0)+":"+codec.getKey(bid2Genes, 0))) {
+				continue;
 			}
-			// z constraint + comparing constraint
-			lp.addConstraint(new LinearBiggerThanEqualsConstraint(createConstraints, 0.0, "c"+constraintNum));
-			//System.out.println("C"+Arrays.toString(createConstraints));
-			constraintNum++;
+			int length = 0;
+			for(int issue = 0 ; issue < issueCount ; issue++) {
+				int indexValueBid1 = codec.getOffset(issue) + bid1Genes[issue];
+				int indexValueBid2 = codec.getOffset(issue) + bid2Genes[issue];
+				if(indexValueBid1 == indexValueBid2) {
+					continue;
+				}
+				//keep columns sorted within the issue block
+				if(indexValueBid1 < indexValueBid2) {
+					rowIndex[length] = indexValueBid1;
+					rowValue[length++] = -1.0;
+					rowIndex[length] = indexValueBid2;
+					rowValue[length++] = 1.0;
+				} else {
+					rowIndex[length] = indexValueBid2;
+					rowValue[length++] = 1.0;
+					rowIndex[length] = indexValueBid1;
+					rowValue[length++] = -1.0;
+				}
+			}
+			//presolve: equal bids only give z >= 0, a repeated difference only raises the cost of its z
+			if(length == 0) {
+				continue;
+			}
+			added++;
+			String rowKey = getRowKey(length);
+			Integer column = rowColumns.get(rowKey);
+			if(column != null) {
+				lp.setObjective(column, lp.getObjective(column) + 1.0);
+				if(lastSolution != null && column < lastSolution.length && lastSolution[column] > 1e-9) {
+					violatedRowWeighted = true;
+				}
+				continue;
+			}
+			int z = lp.addColumn(1.0);
+			rowColumns.put(rowKey, z);
+			lp.addBoundRow(z);
+			rowIndex[length] = z;
+			rowValue[length++] = 1.0;
+			lp.addRow(rowIndex, rowValue, length, SparseLinearProgram.GREATER_EQUAL, 0.0);
 		}
-		
-		//create bestBid constraint
-		Bid bestBid = r.getMaximalBid();
-		double[] createBestConstraints = variableValue.clone();
-		for(Issue i : getIssues()) {
-			int indexValueBid = variableName.indexOf("w"+i.getNumber()+"x"+bestBid.getValue(i).toString());
-			createBestConstraints[indexValueBid] = 1.0;
-		}
-		lp.addConstraint(new LinearEqualsConstraint(createBestConstraints, 1.0, "c"+constraintNum));
-		constraintNum++;
-		
-		System.out.println("Variable: "+variableXSize+" arraySize: "+variableValue.length+" constraintsNum: "+lp.getConstraints().size());
-		lp.setMinProblem(true);
-		LinearProgramSolver solver  = SolverFactory.newDefault();
-		double[] sol = solver.solve(lp);
-		return sol;
+		return added;
+	}
+	
+	private String getRowKey(int length) {
+		StringBuilder key = new StringBuilder(length * 4);
+		for(int entry = 0 ; entry < length ; entry++) {
+			key.append(rowValue[entry] > 0.0 ? '+' : '-').append(rowIndex[entry]);
+		}
+		return key.toString();
+	}
+	
+	//create bestBid constraint
+	private void addBestBidConstraint(BidRanking r) {
+		int issueCount = codec.getIssueCount();
+		codec.encode(r.getMaximalBid(), bid1Genes, 0);
+		bestBidKey = codec.getKey(bid1Genes, 0);
+		for(int issue = 0 ; issue < issueCount ; issue++) {
+			rowIndex[issue] = codec.getOffset(issue) + bid1Genes[issue];
+			rowValue[issue] = 1.0;
+		}
+		lp.addRow(rowIndex, rowValue, issueCount, SparseLinearProgram.EQUAL, 1.0);
+	}
+	
+	//checks comparison rows with their z variable at 0
+	private boolean isSatisfied(double[] solution, int fromRow, int toRow) {
+		for(int row = fromRow ; row < toRow ; row++) {
+			if(lp.getRowEnd(row) - lp.getRowStart(row) == 1) {
+				continue;
+			}
+			double lhs = 0.0;
+			for(int entry = lp.getRowStart(row) ; entry < lp.getRowEnd(row) ; entry++) {
+				if(lp.getIndex(entry) < variableXSize) {
+					lhs = lhs + lp.getValue(entry) * solution[lp.getIndex(entry)];
+				}
+			}
+			if(lhs < -1e-9) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	private void normalizeWeightsByMaxValues() {
@@ -192,6 +349,18 @@ public class LinearProgrammingUtilitySpaceEstimator {
 		u.normalizeWeights();
 	}
 
+	public void setMaxComparisons(int maxComparisons) {
+		this.maxComparisons = maxComparisons;
+	}
+
+	public void setBackend(LinearProgramBackend backend) {
+		this.backend = backend;
+	}
+
+	public void setMetrics(AgentMetrics metrics) {
+		this.metrics = metrics;
+	}
+
 	public AdditiveUtilitySpace getUtilitySpace() {
 		return u;
 	}
@@ -0,0 +1,58 @@
+package project;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class MigrationChannel {
+
+	//Lock-free single-producer single-consumer ring of genomes between two islands.
+	//Only the producer advances tail and only the consumer advances head; lazySet publishes
+	//a slot after its genes are copied, and each side caches the other's index to avoid re-reading it.
+	private final int issueCount;
+	private final int mask;
+	private final int[] genes;
+	private final AtomicLong head = new AtomicLong();
+	private final AtomicLong tail = new AtomicLong();
+	//producer-local copy of head
+	private long headCache = 0;
+	//consumer-local copy of tail
+	private long tailCache = 0;
+
+	//Capacity is rounded up to a power of two
+	public MigrationChannel(int issueCount, int capacity) {
+		int size = 1;
+		while (size < capacity) {
+			size = size << 1;
+		}
+		this.issueCount = issueCount;
+		this.mask = size - 1;
+		this.genes = new int[size * issueCount];
+	}
+
+	//Producer side; false when the ring is full, the migrant is then dropped
+	public boolean offer(int[] source, int offset) {
+		long currentTail = tail.get();
+		if (currentTail - headCache > mask) {
+			headCache = head.get();
+			if (currentTail - headCache > mask) {
+				return false;
+			}
+		}
+		System.arraycopy(source, offset, genes, (int) (currentTail & mask) * issueCount, issueCount);
+		tail.lazySet(currentTail + 1);
+		return true;
+	}
+
+	//Consumer side; false when the ring is empty
+	public boolean poll(int[] target, int offset) {
+		long currentHead = head.get();
+		if (currentHead >= tailCache) {
+			tailCache = tail.get();
+			if (currentHead >= tailCache) {
+				return false;
+			}
+		}
+		System.arraycopy(genes, (int) (currentHead & mask) * issueCount, target, offset, issueCount);
+		head.lazySet(currentHead + 1);
+		return true;
+	}
+}
@@ -0,0 +1,310 @@
+package project;
+
+import java.util.Arrays;
+
+public class NondominatedSort {
+
+	//Efficient non-dominated sort with binary search over fronts (ENS-BS) plus NSGA-II crowding distance.
+	//Rows are sorted lexicographically first, so a row can only be dominated by rows before it; each row is then
+	//placed in the first front none of whose members dominates it, found by binary search. With two objectives
+	//only a front's last member has to be checked, which makes the sort O(N log N); with three, every member
+	//already beats the row in the first objective, so each front keeps a staircase of its members in the other
+	//two and a check is a binary search, O(N log^2 N) overall.
+	//All objectives are maximised and stored column-wise, one array per objective indexed by row.
+	private final int objectiveCount;
+	private final double[][] objectives;
+	private final int[] order;
+	private final int[] rank;
+	private final double[] crowding;
+	//members of a front as a backward chain from its last member, newest first
+	private final int[] frontLast;
+	private final int[] previousInFront;
+	private final int[] frontStart;
+	private final int[] scratch;
+	private Staircase[] staircases = new Staircase[0];
+	private int frontCount = 0;
+
+	public NondominatedSort(int objectiveCount, int capacity) {
+		this.objectiveCount = objectiveCount;
+		objectives = new double[objectiveCount][capacity];
+		order = new int[capacity];
+		rank = new int[capacity];
+		crowding = new double[capacity];
+		frontLast = new int[capacity];
+		previousInFront = new int[capacity];
+		frontStart = new int[capacity + 1];
+		scratch = new int[capacity];
+	}
+
+	//Column of one objective, filled by the caller before sort
+	public double[] getObjective(int objective) {
+		return objectives[objective];
+	}
+
+	//Ranks rows 0..count-1 (front 0 is non-dominated) and orders them by rank, then crowding distance descending;
+	//returns the number of fronts
+	public int sort(int count) {
+		return sort(count, count);
+	}
+
+	//As sort(count), but crowding distances are only computed for the fronts that start within the first
+	//needed positions; the rest keep the lexicographic order and a crowding distance of 0
+	public int sort(int count, int needed) {
+		for (int row = 0; row < count; row++) {
+			order[row] = row;
+		}
+		sortLexicographic(0, count - 1, 0);
+
+		frontCount = 0;
+		for (int k = 0; k < count; k++) {
+			int row = order[k];
+			int low = 0;
+			int high = frontCount;
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				if (isDominatedByFront(row, middle)) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+			if (low == frontCount) {
+				frontLast[frontCount++] = -1;
+				if (objectiveCount == 3) {
+					getStaircase(low).clear();
+				}
+			}
+			rank[row] = low;
+			previousInFront[row] = frontLast[low];
+			frontLast[low] = row;
+			if (objectiveCount == 3) {
+				staircases[low].add(row, objectives[1][row], objectives[2][row]);
+			}
+		}
+
+		//counting sort by rank, keeping the lexicographic order inside a front
+		Arrays.fill(frontStart, 0, frontCount + 1, 0);
+		for (int row = 0; row < count; row++) {
+			frontStart[rank[row] + 1]++;
+		}
+		for (int front = 0; front < frontCount; front++) {
+			frontStart[front + 1] = frontStart[front + 1] + frontStart[front];
+		}
+		System.arraycopy(order, 0, scratch, 0, count);
+		int[] next = frontLast;
+		System.arraycopy(frontStart, 0, next, 0, frontCount);
+		for (int k = 0; k < count; k++) {
+			int row = scratch[k];
+			order[next[rank[row]]++] = row;
+		}
+
+		for (int front = 0; front < frontCount; front++) {
+			int start = frontStart[front];
+			int end = frontStart[front + 1] - 1;
+			if (start >= needed) {
+				for (int k = start; k <= end; k++) {
+					crowding[order[k]] = 0.0;
+				}
+				continue;
+			}
+			assignCrowding(start, end);
+			GenomePopulation.sortDescending(order, crowding, start, end);
+		}
+		return frontCount;
+	}
+
+	//Descending by the first objective, ties broken by the following ones
+	private void sortLexicographic(int low, int high, int objective) {
+		if (high <= low || objective == objectiveCount) {
+			return;
+		}
+		double[] key = objectives[objective];
+		GenomePopulation.sortDescending(order, key, low, high);
+		int start = low;
+		for (int k = low + 1; k <= high + 1; k++) {
+			if (k > high || key[order[k]] != key[order[start]]) {
+				if (k - 1 > start) {
+					sortLexicographic(start, k - 1, objective + 1);
+				}
+				start = k;
+			}
+		}
+	}
+
+	//Members come lexicographically before the row, so no member is worse in all objectives
+	private boolean isDominatedByFront(int row, int front) {
+		int member = frontLast[front];
+		if (objectiveCount == 2) {
+			return dominates(member, row);
+		}
+		if (objectiveCount == 3) {
+			return isDominatedByStaircase(row, staircases[front]);
+		}
+		while (member >= 0) {
+			if (dominates(member, row)) {
+				return true;
+			}
+			member = previousInFront[member];
+		}
+		return false;
+	}
+
+	//The staircase member with the least second objective at or above the row's has the best third objective
+	//among those; an equal point only dominates with a better first objective
+	private boolean isDominatedByStaircase(int row, Staircase staircase) {
+		double second = objectives[1][row];
+		double third = objectives[2][row];
+		int index = staircase.ceiling(second);
+		if (index == staircase.size || staircase.third[index] < third) {
+			return false;
+		}
+		if (staircase.second[index] == second && staircase.third[index] == third) {
+			return objectives[0][staircase.rows[index]] > objectives[0][row];
+		}
+		return true;
+	}
+
+	private Staircase getStaircase(int front) {
+		if (front == staircases.length) {
+			staircases = Arrays.copyOf(staircases, Math.max(8, 2 * front));
+		}
+		if (staircases[front] == null) {
+			staircases[front] = new Staircase();
+		}
+		return staircases[front];
+	}
+
+	//Members of a front that are not beaten in the second and third objective by another member:
+	//second objective ascending, third strictly descending
+	private static class Staircase {
+		private double[] second = new double[16];
+		private double[] third = new double[16];
+		private int[] rows = new int[16];
+		private int size = 0;
+
+		void clear() {
+			size = 0;
+		}
+
+		//First index with a second objective at or above the value
+		int ceiling(double value) {
+			int low = 0;
+			int high = size;
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				if (second[middle] < value) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+			return low;
+		}
+
+		//Adds a point no member beats in both, replacing the members it beats
+		void add(int row, double secondValue, double thirdValue) {
+			int end = ceiling(secondValue);
+			if (end < size && second[end] == secondValue) {
+				if (third[end] >= thirdValue) {
+					//an equal point is already there
+					return;
+				}
+				end++;
+			}
+			//members before end with a third objective at or below the point's are beaten by it
+			int low = 0;
+			int high = end;
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				if (third[middle] > thirdValue) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+			int start = low;
+			int removed = end - start;
+			if (removed == 0) {
+				if (size == rows.length) {
+					second = Arrays.copyOf(second, 2 * size);
+					third = Arrays.copyOf(third, 2 * size);
+					rows = Arrays.copyOf(rows, 2 * size);
+				}
+				System.arraycopy(second, start, second, start + 1, size - start);
+				System.arraycopy(third, start, third, start + 1, size - start);
+				System.arraycopy(rows, start, rows, start + 1, size - start);
+				size++;
+			} else if (removed > 1) {
+				System.arraycopy(second, end, second, start + 1, size - end);
+				System.arraycopy(third, end, third, start + 1, size - end);
+				System.arraycopy(rows, end, rows, start + 1, size - end);
+				size = size - removed + 1;
+			}
+			second[start] = secondValue;
+			third[start] = thirdValue;
+			rows[start] = row;
+		}
+	}
+
+	private boolean dominates(int a, int b) {
+		boolean better = false;
+		for (int objective = 0; objective < objectiveCount; objective++) {
+			double difference = objectives[objective][a] - objectives[objective][b];
+			if (difference < 0.0) {
+				return false;
+			}
+			better = better || difference > 0.0;
+		}
+		return better;
+	}
+
+	//Normalised perimeter of the cuboid spanned by the neighbours in each objective; boundary rows are infinite
+	private void assignCrowding(int start, int end) {
+		for (int k = start; k <= end; k++) {
+			crowding[order[k]] = 0.0;
+		}
+		if (end - start < 2) {
+			for (int k = start; k <= end; k++) {
+				crowding[order[k]] = Double.POSITIVE_INFINITY;
+			}
+			return;
+		}
+		int length = end - start + 1;
+		for (int objective = 0; objective < objectiveCount; objective++) {
+			double[] key = objectives[objective];
+			System.arraycopy(order, start, scratch, 0, length);
+			GenomePopulation.sortDescending(scratch, key, 0, length - 1);
+			double range = key[scratch[0]] - key[scratch[length - 1]];
+			crowding[scratch[0]] = Double.POSITIVE_INFINITY;
+			crowding[scratch[length - 1]] = Double.POSITIVE_INFINITY;
+			if (range <= 0.0) {
+				continue;
+			}
+			for (int k = 1; k < length - 1; k++) {
+				crowding[scratch[k]] = crowding[scratch[k]] + (key[scratch[k - 1]] - key[scratch[k + 1]]) / range;
+			}
+		}
+	}
+
+	//Rows by rank, then crowding distance descending
+	public int[] getOrder() {
+		return order;
+	}
+
+	public int getRank(int row) {
+		return rank[row];
+	}
+
+	public double getCrowding(int row) {
+		return crowding[row];
+	}
+
+	public int getFrontCount() {
+		return frontCount;
+	}
+
+	//First position in the order of the given front; front == getFrontCount() gives the row count
+	public int getFrontStart(int front) {
+		return frontStart[front];
+	}
+}
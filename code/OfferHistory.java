@@ -0,0 +1,183 @@
+package project;
+
+import java.util.Arrays;
+
+import genius.core.Bid;
+
+public class OfferHistory {
+
+	//Offers kept as a FIFO ring of bounded size over an off-heap bit-packed store, ring slot = store row,
+	//so large histories cost a few bytes per offer outside the GC heap. The capacity is a bound, not an
+	//allocation: until the ring is full the offers sit in rows 0..size-1, so the store starts at
+	//INITIAL_CAPACITY rows and doubles only as offers arrive.
+	private static final int UTILITY = 0;
+	private static final int INITIAL_CAPACITY = 64;
+	private final GenomeCodec codec;
+	private final int issueCount;
+	private final int capacity;
+	private final PackedGenomeStore store;
+	private int head = 0;
+	private int size = 0;
+	private long addedCount = 0;
+
+	//Optional Bloom filter over every offer ever added, evicted ones included, so a miss proves an offer
+	//is not retained and contains answers it without probing the store
+	private final long[] bloom;
+	private final int bloomMask;
+
+	//Utility statistics over every offer ever added
+	private double maxUtility = Double.NEGATIVE_INFINITY;
+	private double minUtility = Double.POSITIVE_INFINITY;
+	private final int[] maxGenes;
+
+	private final int[] bidGenes;
+
+	public OfferHistory(GenomeCodec codec, int capacity) {
+		this(codec, capacity, 0);
+	}
+
+	//bloomBits is rounded up to a power of two, 0 disables the filter
+	public OfferHistory(GenomeCodec codec, int capacity, int bloomBits) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("capacity must be positive");
+		}
+		this.codec = codec;
+		this.issueCount = codec.getIssueCount();
+		this.capacity = capacity;
+		store = new PackedGenomeStore(codec, Math.min(INITIAL_CAPACITY, capacity), capacity, 1);
+		maxGenes = new int[issueCount];
+		bidGenes = new int[issueCount];
+
+		if (bloomBits > 0) {
+			int bits = 64;
+			while (bits < bloomBits) {
+				bits = bits << 1;
+			}
+			bloom = new long[bits >>> 6];
+			bloomMask = bits - 1;
+		} else {
+			bloom = null;
+			bloomMask = 0;
+		}
+	}
+
+	public boolean add(Bid bid, double bidUtility) {
+		codec.encode(bid, bidGenes, 0);
+		return add(bidGenes, 0, bidUtility);
+	}
+
+	//Returns false if the offer is already retained; the oldest offer is dropped when full
+	public boolean add(int[] source, int sourceOffset, double bidUtility) {
+		if (store.contains(source, sourceOffset)) {
+			return false;
+		}
+		if (size == capacity) {
+			store.remove(head);
+			head = (head + 1) % capacity;
+			size--;
+		}
+		int index = (head + size) % capacity;
+		store.put(index, source, sourceOffset);
+		store.set(index, UTILITY, bidUtility);
+		size++;
+		addedCount++;
+
+		if (bloom != null) {
+			long key = codec.getKey(source, sourceOffset);
+			for (int k = 0; k < 3; k++) {
+				int bit = bloomBit(key, k);
+				bloom[bit >>> 6] |= 1L << bit;
+			}
+		}
+		if (bidUtility > maxUtility) {
+			maxUtility = bidUtility;
+			System.arraycopy(source, sourceOffset, maxGenes, 0, issueCount);
+		}
+		if (bidUtility < minUtility) {
+			minUtility = bidUtility;
+		}
+		return true;
+	}
+
+	public boolean contains(Bid bid) {
+		codec.encode(bid, bidGenes, 0);
+		return contains(bidGenes, 0);
+	}
+
+	//Exact over the retained offers; the Bloom filter only rules offers out early
+	public boolean contains(int[] source, int sourceOffset) {
+		if (bloom != null) {
+			long key = codec.getKey(source, sourceOffset);
+			for (int k = 0; k < 3; k++) {
+				int bit = bloomBit(key, k);
+				if ((bloom[bit >>> 6] & (1L << bit)) == 0) {
+					return false;
+				}
+			}
+		}
+		return store.contains(source, sourceOffset);
+	}
+
+	private int bloomBit(long key, int k) {
+		long h = (key + k * 0x9E3779B97F4A7C15L) * 0xC4CEB9FE1A85EC53L;
+		return (int) (h ^ (h >>> 29)) & bloomMask;
+	}
+
+	public double getUtility(int[] source, int sourceOffset) {
+		int index = store.indexOf(source, sourceOffset);
+		return index < 0 ? Double.NaN : store.get(index, UTILITY);
+	}
+
+	public double getMaxUtility() {
+		return maxUtility;
+	}
+
+	public double getMinUtility() {
+		return minUtility;
+	}
+
+	//Best offer ever added, whether or not it is still retained
+	public Bid getMaxUtilityBid() {
+		return addedCount == 0 ? null : codec.decode(maxGenes, 0);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public long getAddedCount() {
+		return addedCount;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	//Off-heap bytes currently held, the Bloom filter excluded
+	public long getAllocatedBytes() {
+		return store.getAllocatedBytes();
+	}
+
+	//Retained offers, oldest first
+	public Bid get(int n) {
+		int[] genes = new int[issueCount];
+		store.getGenes((head + n) % capacity, genes, 0);
+		return codec.decode(genes, 0);
+	}
+
+	public double getUtility(int n) {
+		return store.get((head + n) % capacity, UTILITY);
+	}
+
+	public void clear() {
+		store.clear();
+		if (bloom != null) {
+			Arrays.fill(bloom, 0L);
+		}
+		head = 0;
+		size = 0;
+		addedCount = 0;
+		maxUtility = Double.NEGATIVE_INFINITY;
+		minUtility = Double.POSITIVE_INFINITY;
+	}
+}
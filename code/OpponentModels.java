@@ -0,0 +1,90 @@
+package project;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import genius.core.AgentID;
+
+public class OpponentModels {
+
+	//One JohnnyBlack model and last offer per sender; senders can be updated concurrently
+	private static class Opponent {
+		private final JohnnyOpponentModel model;
+		private volatile int[] lastOffer;
+		private volatile CompiledUtilitySpace compiled;
+
+		Opponent(JohnnyOpponentModel model) {
+			this.model = model;
+			this.compiled = model.compile();
+		}
+	}
+
+	private final GenomeCodec codec;
+	private final int mode;
+	private final ConcurrentHashMap<AgentID, Opponent> opponents = new ConcurrentHashMap<AgentID, Opponent>();
+	//arrival order, so the combination does not depend on hash order
+	private final List<Opponent> arrivalOrder = new CopyOnWriteArrayList<Opponent>();
+	//what every opponent model starts from
+	private final CompiledUtilitySpace initialUtilitySpace;
+	//key of offers without a sender, as the map takes no null keys
+	private static final AgentID NO_SENDER = new AgentID("");
+
+	public OpponentModels(GenomeCodec codec, int mode) {
+		this.codec = codec;
+		this.mode = mode;
+		initialUtilitySpace = new JohnnyOpponentModel(codec).compile();
+	}
+
+	public void updateOpponentPreference(AgentID sender, int[] genes) {
+		Opponent opponent = opponents.computeIfAbsent(key(sender), id -> {
+			Opponent created = new Opponent(new JohnnyOpponentModel(codec));
+			arrivalOrder.add(created);
+			return created;
+		});
+		synchronized (opponent) {
+			opponent.model.updateOpponentPreference(genes, 0);
+			opponent.compiled = opponent.model.compile();
+			opponent.lastOffer = genes;
+		}
+	}
+
+	//A single opponent is used as is, several are combined per genome
+	public OpponentUtility getOpponentUtility() {
+		int count = arrivalOrder.size();
+		if (count == 0) {
+			return initialUtilitySpace;
+		}
+		if (count == 1) {
+			return arrivalOrder.get(0).compiled;
+		}
+		CompiledUtilitySpace[] compiled = new CompiledUtilitySpace[count];
+		for (int n = 0; n < count; n++) {
+			compiled[n] = arrivalOrder.get(n).compiled;
+		}
+		return new CombinedOpponentUtility(compiled, mode);
+	}
+
+	public JohnnyOpponentModel getModel(AgentID sender) {
+		Opponent opponent = opponents.get(key(sender));
+		return opponent == null ? null : opponent.model;
+	}
+
+	public int[] getLastOffer(AgentID sender) {
+		Opponent opponent = opponents.get(key(sender));
+		return opponent == null ? null : opponent.lastOffer;
+	}
+
+	//Offers without a sender are all modelled as one opponent
+	private static AgentID key(AgentID sender) {
+		return sender == null ? NO_SENDER : sender;
+	}
+
+	public int size() {
+		return arrivalOrder.size();
+	}
+
+	public CompiledUtilitySpace getInitialUtilitySpace() {
+		return initialUtilitySpace;
+	}
+}
@@ -0,0 +1,13 @@
+package project;
+
+public interface OpponentUtility {
+
+	//Estimated opponent utility of a genome
+	double getUtility(int[] genes, int offset);
+
+	//Upper bound over all genomes
+	double getMaxUtility();
+
+	//True if both give the same utility for every genome, so cached terms stay valid
+	boolean sameAs(OpponentUtility other);
+}
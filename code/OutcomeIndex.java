@@ -0,0 +1,130 @@
+package project;
+
+public class OutcomeIndex {
+
+	public interface Scorer {
+		double score(int[] genes, int offset);
+
+		//Must not decrease with utility and bound the score of every outcome of that utility
+		double upperBound(double utility);
+	}
+
+	//Every outcome of the domain as its codec key, sorted by own utility (highest first)
+	private final GenomeCodec codec;
+	private final int issueCount;
+	private final int[] outcomes;
+	private final double[] utilities;
+
+	private OutcomeIndex(GenomeCodec codec, int[] outcomes, double[] utilities) {
+		this.codec = codec;
+		this.issueCount = codec.getIssueCount();
+		this.outcomes = outcomes;
+		this.utilities = utilities;
+	}
+
+	//Domains with more than maxOutcomes outcomes are not indexed (returns null)
+	public static OutcomeIndex build(GenomeCodec codec, CompiledUtilitySpace utilitySpace, int maxOutcomes) {
+		if (codec.getOutcomeCount() > maxOutcomes) {
+			return null;
+		}
+		int issueCount = codec.getIssueCount();
+		int size = (int) codec.getOutcomeCount();
+		int[] order = new int[size];
+		double[] utility = new double[size];
+		//odometer over the outcomes in key order, last issue fastest
+		int[] genes = new int[issueCount];
+		for (int outcome = 0; outcome < size; outcome++) {
+			order[outcome] = outcome;
+			utility[outcome] = utilitySpace.getUtility(genes, 0);
+			for (int i = issueCount - 1; i >= 0; i--) {
+				if (++genes[i] < codec.getValueCount(i)) {
+					break;
+				}
+				genes[i] = 0;
+			}
+		}
+		GenomePopulation.sortDescending(order, utility, 0, size - 1);
+		double[] utilities = new double[size];
+		for (int position = 0; position < size; position++) {
+			utilities[position] = utility[order[position]];
+		}
+		return new OutcomeIndex(codec, order, utilities);
+	}
+
+	public int size() {
+		return outcomes.length;
+	}
+
+	//First position with utility <= maxUtility
+	public int lowerPosition(double maxUtility) {
+		int low = 0;
+		int high = outcomes.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (utilities[middle] > maxUtility) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	//First position with utility < minUtility
+	public int upperPosition(double minUtility) {
+		int low = 0;
+		int high = outcomes.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (utilities[middle] >= minUtility) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	//Number of outcomes with own utility in [minUtility, maxUtility]
+	public int countInRange(double minUtility, double maxUtility) {
+		return Math.max(upperPosition(minUtility) - lowerPosition(maxUtility), 0);
+	}
+
+	public double getUtility(int position) {
+		return utilities[position];
+	}
+
+	public void getGenes(int position, int[] genes, int offset) {
+		codec.decodeKey(outcomes[position], genes, offset);
+	}
+
+	//Positions of the k best scoring outcomes with own utility in [minUtility, maxUtility], best first;
+	//the index is immutable, so sessions sharing it may query it concurrently
+	public int topK(double minUtility, double maxUtility, int k, Scorer scorer, int[] positions, double[] scores) {
+		int[] outcomeGenes = new int[issueCount];
+		int start = lowerPosition(maxUtility);
+		int end = upperPosition(minUtility);
+		int found = 0;
+		for (int position = start; position < end; position++) {
+			//outcomes are sorted by utility, so no later one can enter the k best
+			if (found == k && scorer.upperBound(utilities[position]) <= scores[found - 1]) {
+				break;
+			}
+			codec.decodeKey(outcomes[position], outcomeGenes, 0);
+			double score = scorer.score(outcomeGenes, 0);
+			if (found == k && score <= scores[found - 1]) {
+				continue;
+			}
+			//insertion into the sorted k best, earlier positions win ties
+			int slot = found < k ? found++ : found - 1;
+			while (slot > 0 && scores[slot - 1] < score) {
+				scores[slot] = scores[slot - 1];
+				positions[slot] = positions[slot - 1];
+				slot--;
+			}
+			scores[slot] = score;
+			positions[slot] = position;
+		}
+		return found;
+	}
+}
@@ -0,0 +1,285 @@
+package project;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+public class PackedGenomeStore {
+
+	//Bounded genome store outside the GC heap: genes bit-packed at ceil(log2(values)) bits per issue
+	//into whole 64-bit words, primitive double columns per row and an open-addressing table of (row + 1)
+	//over the packed words, 0 = empty. Rows are placed and freed by the caller, which tracks the rows in use,
+	//so rings and archives can share it. A row costs 8 bytes per packed word, 8 per column and 8 of table;
+	//nothing per row is on the heap. Nothing is allocated before the first put; the buffers then hold
+	//initialCapacity rows and double whenever a higher row is put, up to capacity.
+	private final int issueCount;
+	private final int initialCapacity;
+	private final int capacity;
+	private final int columnCount;
+	private final int[] bitOffsets;
+	private final int[] bitWidths;
+	private final int wordsPerGenome;
+	private int allocatedRows = 0;
+	private LongBuffer words;
+	private DoubleBuffer columns;
+	private IntBuffer slots;
+	private int mask;
+	private int size = 0;
+
+	//packing scratch of the calling thread's query; the store is not thread-safe
+	private final long[] packed;
+
+	public PackedGenomeStore(GenomeCodec codec, int capacity, int columnCount) {
+		this(codec, capacity, capacity, columnCount);
+	}
+
+	public PackedGenomeStore(GenomeCodec codec, int initialCapacity, int capacity, int columnCount) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("capacity must be positive");
+		}
+		if (initialCapacity <= 0 || initialCapacity > capacity) {
+			throw new IllegalArgumentException("initial capacity must be in 1.." + capacity);
+		}
+		this.issueCount = codec.getIssueCount();
+		this.initialCapacity = initialCapacity;
+		this.capacity = capacity;
+		this.columnCount = columnCount;
+		bitOffsets = new int[issueCount];
+		bitWidths = new int[issueCount];
+		int bits = 0;
+		for (int i = 0; i < issueCount; i++) {
+			int width = Math.max(1, 32 - Integer.numberOfLeadingZeros(codec.getValueCount(i) - 1));
+			//an issue never straddles two words
+			if ((bits & 63) + width > 64) {
+				bits = (bits + 63) & ~63;
+			}
+			bitOffsets[i] = bits;
+			bitWidths[i] = width;
+			bits = bits + width;
+		}
+		wordsPerGenome = Math.max(1, (bits + 63) >>> 6);
+		packed = new long[wordsPerGenome];
+
+		long bytes = 8L * capacity * wordsPerGenome + 8L * capacity * columnCount + 4L * getTableSize(capacity);
+		if (bytes > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("store of " + capacity + " genomes exceeds one direct buffer");
+		}
+	}
+
+	//At least twice the rows, a power of two
+	private static int getTableSize(int rows) {
+		int tableSize = 1;
+		while (tableSize < rows * 2) {
+			tableSize = tableSize << 1;
+		}
+		return tableSize;
+	}
+
+	//Doubles the buffers until the row fits, copying the rows and re-inserting the table's entries
+	private void grow(int row) {
+		if (row >= capacity) {
+			throw new IndexOutOfBoundsException("row " + row + " beyond capacity " + capacity);
+		}
+		int rows = allocatedRows == 0 ? initialCapacity : allocatedRows;
+		while (rows <= row) {
+			rows = (int) Math.min(2L * rows, capacity);
+		}
+		LongBuffer grownWords = allocate(8L * rows * wordsPerGenome).asLongBuffer();
+		DoubleBuffer grownColumns = allocate(8L * rows * Math.max(columnCount, 1)).asDoubleBuffer();
+		IntBuffer grownSlots = allocate(4L * getTableSize(rows)).asIntBuffer();
+		IntBuffer oldSlots = slots;
+		if (allocatedRows > 0) {
+			//bulk copies move the positions, which the absolute accesses elsewhere never use
+			grownWords.put(words);
+			grownWords.rewind();
+			grownColumns.put(columns);
+			grownColumns.rewind();
+		}
+		words = grownWords;
+		columns = grownColumns;
+		slots = grownSlots;
+		mask = grownSlots.capacity() - 1;
+		allocatedRows = rows;
+		if (oldSlots != null) {
+			for (int oldSlot = 0; oldSlot < oldSlots.capacity(); oldSlot++) {
+				int entry = oldSlots.get(oldSlot);
+				if (entry != 0) {
+					int slot = hashRow(entry - 1) & mask;
+					while (slots.get(slot) != 0) {
+						slot = (slot + 1) & mask;
+					}
+					slots.put(slot, entry);
+				}
+			}
+		}
+	}
+
+	//Zero-filled direct memory in native order
+	private static ByteBuffer allocate(long bytes) {
+		return ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+	}
+
+	private void pack(int[] genes, int offset) {
+		for (int w = 0; w < wordsPerGenome; w++) {
+			packed[w] = 0L;
+		}
+		for (int i = 0; i < issueCount; i++) {
+			int bit = bitOffsets[i];
+			packed[bit >>> 6] |= ((long) genes[offset + i]) << (bit & 63);
+		}
+	}
+
+	private int hashPacked() {
+		long h = 0x9E3779B97F4A7C15L;
+		for (int w = 0; w < wordsPerGenome; w++) {
+			h = (h ^ packed[w]) * 0xBF58476D1CE4E5B9L;
+			h = h ^ (h >>> 31);
+		}
+		return (int) (h ^ (h >>> 32));
+	}
+
+	private int hashRow(int row) {
+		long h = 0x9E3779B97F4A7C15L;
+		int base = row * wordsPerGenome;
+		for (int w = 0; w < wordsPerGenome; w++) {
+			h = (h ^ words.get(base + w)) * 0xBF58476D1CE4E5B9L;
+			h = h ^ (h >>> 31);
+		}
+		return (int) (h ^ (h >>> 32));
+	}
+
+	private boolean equalsPacked(int row) {
+		int base = row * wordsPerGenome;
+		for (int w = 0; w < wordsPerGenome; w++) {
+			if (words.get(base + w) != packed[w]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	//Row holding the genome, or -1
+	public int indexOf(int[] genes, int offset) {
+		if (size == 0) {
+			return -1;
+		}
+		pack(genes, offset);
+		int slot = hashPacked() & mask;
+		int entry;
+		while ((entry = slots.get(slot)) != 0) {
+			if (equalsPacked(entry - 1)) {
+				return entry - 1;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	public boolean contains(int[] genes, int offset) {
+		return indexOf(genes, offset) >= 0;
+	}
+
+	//Stores the genome in a free row; false if it is already stored (in any row)
+	public boolean put(int row, int[] genes, int offset) {
+		if (row >= allocatedRows) {
+			grow(row);
+		}
+		pack(genes, offset);
+		int slot = hashPacked() & mask;
+		int entry;
+		while ((entry = slots.get(slot)) != 0) {
+			if (equalsPacked(entry - 1)) {
+				return false;
+			}
+			slot = (slot + 1) & mask;
+		}
+		int base = row * wordsPerGenome;
+		for (int w = 0; w < wordsPerGenome; w++) {
+			words.put(base + w, packed[w]);
+		}
+		for (int column = 0; column < columnCount; column++) {
+			columns.put(row * columnCount + column, 0.0);
+		}
+		slots.put(slot, row + 1);
+		size++;
+		return true;
+	}
+
+	//Frees a row in use; linear-probing delete that shifts later entries back instead of leaving tombstones
+	public void remove(int row) {
+		int slot = hashRow(row) & mask;
+		while (slots.get(slot) != row + 1) {
+			slot = (slot + 1) & mask;
+		}
+		int next = (slot + 1) & mask;
+		int entry;
+		while ((entry = slots.get(next)) != 0) {
+			int home = hashRow(entry - 1) & mask;
+			//move the entry back if its home is not between the hole and its slot
+			if (((next - home) & mask) >= ((next - slot) & mask)) {
+				slots.put(slot, entry);
+				slot = next;
+			}
+			next = (next + 1) & mask;
+		}
+		slots.put(slot, 0);
+		size--;
+	}
+
+	public void getGenes(int row, int[] genes, int offset) {
+		int base = row * wordsPerGenome;
+		for (int i = 0; i < issueCount; i++) {
+			int bit = bitOffsets[i];
+			long word = words.get(base + (bit >>> 6));
+			genes[offset + i] = (int) ((word >>> (bit & 63)) & ((1L << bitWidths[i]) - 1));
+		}
+	}
+
+	public double get(int row, int column) {
+		return columns.get(row * columnCount + column);
+	}
+
+	public void set(int row, int column, double value) {
+		columns.put(row * columnCount + column, value);
+	}
+
+	public void clear() {
+		if (slots == null) {
+			return;
+		}
+		for (int slot = 0; slot <= mask; slot++) {
+			slots.put(slot, 0);
+		}
+		size = 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	//Rows the buffers currently hold, 0 before the first put
+	public int getAllocatedCapacity() {
+		return allocatedRows;
+	}
+
+	//Direct memory currently held
+	public long getAllocatedBytes() {
+		return allocatedRows == 0 ? 0L
+				: 8L * allocatedRows * wordsPerGenome + 8L * allocatedRows * Math.max(columnCount, 1) + 4L * (mask + 1);
+	}
+
+	public int getWordsPerGenome() {
+		return wordsPerGenome;
+	}
+
+	//Off-heap bytes per row at full capacity, table share included
+	public double getBytesPerGenome() {
+		return 8.0 * wordsPerGenome + 8.0 * columnCount + 4.0 * getTableSize(capacity) / capacity;
+	}
+}
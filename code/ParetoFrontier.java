@@ -0,0 +1,233 @@
+package project;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+public class ParetoFrontier {
+
+	//Candidate bid with its own and estimated opponent utility
+	private static class Point {
+		private final int[] genes;
+		private double ownUtility;
+		private double opponentUtility;
+
+		Point(int[] genes) {
+			this.genes = genes;
+		}
+
+		double getNash() {
+			return ownUtility * opponentUtility;
+		}
+
+		//equal by genome, so the archive can find a bid whatever its current scores
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof Point && Arrays.equals(genes, ((Point) other).genes);
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(genes);
+		}
+	}
+
+	//own utilities are unique on the staircase, so they break Nash ties
+	private static final Comparator<Point> NASH_ORDER = (a, b) -> {
+		int order = Double.compare(a.getNash(), b.getNash());
+		return order != 0 ? order : Double.compare(a.ownUtility, b.ownUtility);
+	};
+
+	//Non-dominated candidates as a staircase: own utility ascending, opponent utility strictly descending
+	private final TreeMap<Double, Point> staircase = new TreeMap<Double, Point>();
+	//the same points by Nash product
+	private final TreeSet<Point> byNash = new TreeSet<Point>(NASH_ORDER);
+	//the latest points that left the staircase, oldest first; a changed opponent model can bring them back.
+	//A genome is in it at most once, and never while it is on the staircase.
+	private final LinkedHashSet<Point> archive = new LinkedHashSet<Point>();
+	private final int issueCount;
+	private final int maxPoints;
+	private CompiledUtilitySpace ownUtilitySpace;
+	private OpponentUtility opponentUtilitySpace;
+	//set when the spaces changed since the points were scored
+	private boolean stale = false;
+
+	//Not thread-safe; the agent only uses it from the negotiation thread
+	public ParetoFrontier(GenomeCodec codec, CompiledUtilitySpace ownUtilitySpace, OpponentUtility opponentUtilitySpace,
+			int maxPoints) {
+		this.issueCount = codec.getIssueCount();
+		this.ownUtilitySpace = ownUtilitySpace;
+		this.opponentUtilitySpace = opponentUtilitySpace;
+		this.maxPoints = maxPoints;
+	}
+
+	//Adds a candidate unless a frontier point is at least as good for both sides; O(log n) plus removed points
+	public boolean add(int[] genes, int offset) {
+		rescore();
+		double ownUtility = ownUtilitySpace.getUtility(genes, offset);
+		double opponentUtility = opponentUtilitySpace.getUtility(genes, offset);
+		if (isDominated(ownUtility, opponentUtility)) {
+			return false;
+		}
+		int[] copy = new int[issueCount];
+		System.arraycopy(genes, offset, copy, 0, issueCount);
+		Point point = new Point(copy);
+		point.ownUtility = ownUtility;
+		point.opponentUtility = opponentUtility;
+		archive.remove(point);
+		insert(point);
+		return true;
+	}
+
+	public void addPopulation(GenomePopulation population) {
+		for (int row = 0; row < population.size(); row++) {
+			add(population.getGenes(), population.getRowOffset(row));
+		}
+	}
+
+	//The lowest point with at least this own utility has the best opponent utility among them
+	private boolean isDominated(double ownUtility, double opponentUtility) {
+		Map.Entry<Double, Point> ceiling = staircase.ceilingEntry(ownUtility);
+		return ceiling != null && ceiling.getValue().opponentUtility >= opponentUtility;
+	}
+
+	private void insert(Point point) {
+		//points below it with no better opponent utility are now dominated
+		Map.Entry<Double, Point> floor = staircase.floorEntry(point.ownUtility);
+		while (floor != null && floor.getValue().opponentUtility <= point.opponentUtility) {
+			remove(floor.getValue());
+			floor = staircase.lowerEntry(floor.getKey());
+		}
+		staircase.put(point.ownUtility, point);
+		byNash.add(point);
+		//the least own utility matters least to the agent
+		if (staircase.size() > maxPoints) {
+			remove(staircase.firstEntry().getValue());
+		}
+	}
+
+	private void remove(Point point) {
+		byNash.remove(point);
+		staircase.remove(point.ownUtility);
+		archive(point);
+	}
+
+	private void archive(Point point) {
+		if (!archive.add(point)) {
+			return;
+		}
+		if (archive.size() > maxPoints) {
+			Iterator<Point> oldest = archive.iterator();
+			oldest.next();
+			oldest.remove();
+		}
+	}
+
+	//Marks the points for re-scoring against changed spaces; the work is deferred to the next use, so the
+	//opponent model updates between two turns cost one re-scoring
+	public void setUtilitySpaces(CompiledUtilitySpace ownUtilitySpace, OpponentUtility opponentUtilitySpace) {
+		if (ownUtilitySpace == this.ownUtilitySpace && opponentUtilitySpace.sameAs(this.opponentUtilitySpace)) {
+			return;
+		}
+		this.ownUtilitySpace = ownUtilitySpace;
+		this.opponentUtilitySpace = opponentUtilitySpace;
+		stale = true;
+	}
+
+	//Re-scores the frontier and archived points in one sweep by own utility: a point stays on the staircase
+	//if it beats the opponent utility of every point above it, the others go to the archive
+	private void rescore() {
+		if (!stale) {
+			return;
+		}
+		stale = false;
+		List<Point> points = new ArrayList<Point>(staircase.size() + archive.size());
+		//archived points first, so the newest ones survive when the archive overflows again
+		points.addAll(archive);
+		points.addAll(staircase.values());
+		staircase.clear();
+		byNash.clear();
+		archive.clear();
+		for (Point point : points) {
+			point.ownUtility = ownUtilitySpace.getUtility(point.genes, 0);
+			point.opponentUtility = opponentUtilitySpace.getUtility(point.genes, 0);
+		}
+		List<Point> byOwnUtility = new ArrayList<Point>(points);
+		byOwnUtility.sort((a, b) -> {
+			int order = Double.compare(b.ownUtility, a.ownUtility);
+			return order != 0 ? order : Double.compare(b.opponentUtility, a.opponentUtility);
+		});
+		double bestOpponentUtility = Double.NEGATIVE_INFINITY;
+		for (Point point : byOwnUtility) {
+			if (point.opponentUtility > bestOpponentUtility && staircase.size() < maxPoints) {
+				bestOpponentUtility = point.opponentUtility;
+				staircase.put(point.ownUtility, point);
+				byNash.add(point);
+			}
+		}
+		for (Point point : points) {
+			if (staircase.get(point.ownUtility) != point) {
+				archive(point);
+			}
+		}
+	}
+
+	public void setOpponentUtilitySpace(OpponentUtility opponentUtilitySpace) {
+		setUtilitySpaces(ownUtilitySpace, opponentUtilitySpace);
+	}
+
+	//Frontier bid nearest above the given own utility, i.e. the best one for the opponent; false if none
+	public boolean getAtLeast(double ownUtility, int[] genes, int offset) {
+		rescore();
+		Map.Entry<Double, Point> ceiling = staircase.ceilingEntry(ownUtility);
+		if (ceiling == null) {
+			return false;
+		}
+		System.arraycopy(ceiling.getValue().genes, 0, genes, offset, issueCount);
+		return true;
+	}
+
+	//Copies up to max frontier bids from the given own utility upwards; returns how many
+	public int collectAtLeast(double ownUtility, int max, int[] genes) {
+		rescore();
+		int count = 0;
+		for (Point point : staircase.tailMap(ownUtility, true).values()) {
+			if (count == max) {
+				break;
+			}
+			System.arraycopy(point.genes, 0, genes, count * issueCount, issueCount);
+			count++;
+		}
+		return count;
+	}
+
+	//Frontier bid with the highest product of both utilities; false if the frontier is empty
+	public boolean getMaxNash(int[] genes, int offset) {
+		rescore();
+		if (byNash.isEmpty()) {
+			return false;
+		}
+		System.arraycopy(byNash.last().genes, 0, genes, offset, issueCount);
+		return true;
+	}
+
+	public double getMaxNashProduct() {
+		rescore();
+		return byNash.isEmpty() ? 0.0 : byNash.last().getNash();
+	}
+
+	public int size() {
+		rescore();
+		return staircase.size();
+	}
+
+	public int getArchiveSize() {
+		return archive.size();
+	}
+}
@@ -0,0 +1,23 @@
+package project;
+
+import scpsolver.lpsolver.LinearProgramSolver;
+import scpsolver.lpsolver.SolverFactory;
+
+public class ScpSolverBackend implements LinearProgramBackend {
+
+	//the native solver packs are not thread-safe, so agents sharing a JVM solve one at a time
+	private static final Object SOLVER_LOCK = new Object();
+
+	@Override
+	public double[] solve(SparseLinearProgram lp) {
+		synchronized (SOLVER_LOCK) {
+			LinearProgramSolver solver = SolverFactory.newDefault();
+			return solver.solve(lp.toLinearProgram());
+		}
+	}
+
+	@Override
+	public String getName() {
+		return "scp";
+	}
+}
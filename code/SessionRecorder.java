@@ -0,0 +1,140 @@
+package project;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import genius.core.AgentID;
+import genius.core.Bid;
+import genius.core.actions.Accept;
+import genius.core.actions.Action;
+import genius.core.actions.Offer;
+import genius.core.issue.IssueDiscrete;
+import genius.core.uncertainty.BidRanking;
+
+public class SessionRecorder {
+
+	//Binary session log, big-endian:
+	//header: magic, seed, discrete timeline flag, total time, agent name, domain name,
+	//issues (name, number, values), key mode, bid ranking (low, high, bids worst to best)
+	//events: type byte, timeline time, then for RECEIVED the sender (flag, name) and for all but OTHER the bid;
+	//END closes the log. Version 1 logs (MAGIC_V1) have no senders.
+	public static final int MAGIC = 0x47414C32;
+	public static final int MAGIC_V1 = 0x47414C31;
+	public static final byte END = 0;
+	public static final byte RECEIVED = 1;
+	public static final byte OFFER = 2;
+	public static final byte ACCEPT = 3;
+	public static final byte OTHER = 4;
+	//bids are written as one codec key, or one int per issue when keys are hashed
+	public static final byte KEYS = 1;
+	public static final byte GENES = 0;
+
+	private final GenomeCodec codec;
+	private final DataOutputStream out;
+	private final int[] bidGenes;
+	private final boolean exactKeys;
+
+	public SessionRecorder(GenomeCodec codec, OutputStream out) {
+		this.codec = codec;
+		this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+		bidGenes = new int[codec.getIssueCount()];
+		exactKeys = codec.hasExactKeys();
+	}
+
+	//New log file in the directory; null if it cannot be created
+	public static SessionRecorder open(File directory, String agentName, GenomeCodec codec) {
+		String fileName = agentName.replaceAll("[^A-Za-z0-9_.-]", "_") + "-" + System.currentTimeMillis() + ".gal";
+		try {
+			directory.mkdirs();
+			return new SessionRecorder(codec, new FileOutputStream(new File(directory, fileName)));
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	public void writeHeader(long seed, boolean discrete, double totalTime, String agentName, BidRanking bidRanking)
+			throws IOException {
+		out.writeInt(MAGIC);
+		out.writeLong(seed);
+		out.writeBoolean(discrete);
+		out.writeDouble(totalTime);
+		writeString(agentName);
+		writeString(codec.getDomain().getName());
+		out.writeInt(codec.getIssueCount());
+		for (int i = 0; i < codec.getIssueCount(); i++) {
+			IssueDiscrete issue = codec.getIssue(i);
+			writeString(issue.getName());
+			out.writeInt(issue.getNumber());
+			out.writeInt(codec.getValueCount(i));
+			for (int v = 0; v < codec.getValueCount(i); v++) {
+				writeString(codec.getValue(i, v).toString());
+			}
+		}
+		out.writeByte(exactKeys ? KEYS : GENES);
+		List<Bid> bidOrder = bidRanking.getBidOrder();
+		out.writeDouble(bidRanking.getLowUtility());
+		out.writeDouble(bidRanking.getHighUtility());
+		out.writeInt(bidOrder.size());
+		for (Bid bid : bidOrder) {
+			writeBid(bid);
+		}
+	}
+
+	public void received(double time, AgentID sender, int[] genes) throws IOException {
+		out.writeByte(RECEIVED);
+		out.writeDouble(time);
+		out.writeBoolean(sender != null);
+		if (sender != null) {
+			writeString(sender.toString());
+		}
+		writeGenes(genes);
+	}
+
+	public void action(double time, Action action) throws IOException {
+		if (action instanceof Offer) {
+			out.writeByte(OFFER);
+			out.writeDouble(time);
+			writeBid(((Offer) action).getBid());
+		} else if (action instanceof Accept) {
+			out.writeByte(ACCEPT);
+			out.writeDouble(time);
+			writeBid(((Accept) action).getBid());
+		} else {
+			out.writeByte(OTHER);
+			out.writeDouble(time);
+		}
+	}
+
+	public void close() throws IOException {
+		out.writeByte(END);
+		out.close();
+	}
+
+	private void writeBid(Bid bid) throws IOException {
+		codec.encode(bid, bidGenes, 0);
+		writeGenes(bidGenes);
+	}
+
+	private void writeGenes(int[] genes) throws IOException {
+		if (exactKeys) {
+			out.writeLong(codec.getKey(genes, 0));
+		} else {
+			for (int i = 0; i < genes.length; i++) {
+				out.writeInt(genes[i]);
+			}
+		}
+	}
+
+	private void writeString(String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+}
@@ -0,0 +1,302 @@
+package project;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import genius.core.AgentID;
+import genius.core.Bid;
+import genius.core.Deadline;
+import genius.core.DeadlineType;
+import genius.core.Domain;
+import genius.core.actions.Accept;
+import genius.core.actions.Action;
+import genius.core.actions.Offer;
+import genius.core.timeline.ContinuousTimeline;
+import genius.core.timeline.DiscreteTimeline;
+import genius.core.timeline.TimeLineInfo;
+import genius.core.uncertainty.BidRanking;
+
+public class SessionReplay {
+
+	//Maps the log in windows so logs larger than one mapping can be streamed
+	private static final long WINDOW = 64L << 20;
+
+	private final FileChannel channel;
+	private final long fileSize;
+	private long windowStart = 0;
+	private MappedByteBuffer buffer;
+
+	private GenomeCodec codec;
+	private boolean exactKeys;
+	private int[] bidGenes;
+
+	public SessionReplay(FileChannel channel) throws IOException {
+		this.channel = channel;
+		this.fileSize = channel.size();
+		map(0, 0);
+	}
+
+	private void map(long position, int minimum) throws IOException {
+		windowStart = position;
+		buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(Math.max(WINDOW, minimum), fileSize - position));
+	}
+
+	//Remaps at the current position when the window holds fewer than n bytes
+	private void ensure(int n) throws IOException {
+		if (buffer.remaining() < n) {
+			long position = windowStart + buffer.position();
+			if (fileSize - position < n) {
+				throw new IOException("truncated session log");
+			}
+			map(position, n);
+		}
+	}
+
+	private byte readByte() throws IOException {
+		ensure(1);
+		return buffer.get();
+	}
+
+	private int readInt() throws IOException {
+		ensure(4);
+		return buffer.getInt();
+	}
+
+	private long readLong() throws IOException {
+		ensure(8);
+		return buffer.getLong();
+	}
+
+	private double readDouble() throws IOException {
+		ensure(8);
+		return buffer.getDouble();
+	}
+
+	private String readString() throws IOException {
+		int length = readInt();
+		ensure(length);
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private int[] readGenes(int[] genes) throws IOException {
+		if (exactKeys) {
+			codec.decodeKey(readLong(), genes, 0);
+		} else {
+			for (int i = 0; i < genes.length; i++) {
+				genes[i] = readInt();
+			}
+		}
+		return genes;
+	}
+
+	//Replay timelines report the recorded time of each event, as rounds or as seconds like the recorded session
+	private interface ReplayTimeline extends TimeLineInfo {
+		void setTime(double time);
+	}
+
+	private static class DiscreteReplayTimeline extends DiscreteTimeline implements ReplayTimeline {
+		private double time = 0.0;
+		private final double totalTime;
+
+		DiscreteReplayTimeline(double totalTime) {
+			super((int) Math.max(totalTime, 1));
+			this.totalTime = totalTime;
+		}
+
+		@Override
+		public void setTime(double time) {
+			this.time = time;
+		}
+
+		@Override
+		public double getTime() {
+			return time;
+		}
+
+		@Override
+		public double getCurrentTime() {
+			return time * totalTime;
+		}
+
+		@Override
+		public double getTotalTime() {
+			return totalTime;
+		}
+	}
+
+	private static class ContinuousReplayTimeline extends ContinuousTimeline implements ReplayTimeline {
+		private double time = 0.0;
+		private final double totalTime;
+
+		ContinuousReplayTimeline(double totalTime) {
+			super((int) Math.ceil(Math.max(totalTime, 1)));
+			this.totalTime = totalTime;
+		}
+
+		@Override
+		public void setTime(double time) {
+			this.time = time;
+		}
+
+		@Override
+		public double getTime() {
+			return time;
+		}
+
+		@Override
+		public double getCurrentTime() {
+			return time * totalTime;
+		}
+
+		@Override
+		public double getTotalTime() {
+			return totalTime;
+		}
+	}
+
+	//Re-runs the recorded session through a fresh GAagent; returns the number of mismatched decisions
+	public int replay(String logName) throws IOException {
+		int magic = readInt();
+		if (magic != SessionRecorder.MAGIC && magic != SessionRecorder.MAGIC_V1) {
+			throw new IOException("not a session log: " + logName);
+		}
+		boolean senders = magic == SessionRecorder.MAGIC;
+		long seed = readLong();
+		boolean discrete = readByte() != 0;
+		double totalTime = readDouble();
+		String agentName = readString();
+		String domainName = readString();
+		int issueCount = readInt();
+		String[] issueNames = new String[issueCount];
+		int[] issueNumbers = new int[issueCount];
+		String[][] values = new String[issueCount][];
+		for (int i = 0; i < issueCount; i++) {
+			issueNames[i] = readString();
+			issueNumbers[i] = readInt();
+			values[i] = new String[readInt()];
+			for (int v = 0; v < values[i].length; v++) {
+				values[i][v] = readString();
+			}
+		}
+		Domain domain = SyntheticDomain.createDomain(domainName, issueNames, issueNumbers, values);
+		codec = new GenomeCodec(domain);
+		exactKeys = readByte() == SessionRecorder.KEYS;
+		bidGenes = new int[issueCount];
+
+		double lowUtility = readDouble();
+		double highUtility = readDouble();
+		int rankingSize = readInt();
+		List<Bid> bidOrder = new ArrayList<Bid>(rankingSize);
+		for (int n = 0; n < rankingSize; n++) {
+			bidOrder.add(codec.decode(readGenes(bidGenes), 0));
+		}
+		BidRanking bidRanking = new BidRanking(bidOrder, lowUtility, highUtility);
+
+		//only the domain of the given space is used, the agent estimates its own
+		ReplayTimeline timeline = discrete ? new DiscreteReplayTimeline(totalTime) : new ContinuousReplayTimeline(totalTime);
+		Deadline deadline = new Deadline((int) Math.ceil(Math.max(totalTime, 1)), discrete ? DeadlineType.ROUND : DeadlineType.TIME);
+		GAagent agent = new GAagent();
+		long initStart = System.nanoTime();
+		agent.init(SyntheticDomain.createInfo(SyntheticDomain.createUtilitySpace(domain, new Random(seed)), bidRanking,
+				timeline, deadline, seed, agentName));
+		long initNanos = System.nanoTime() - initStart;
+
+		//each recorded sender is replayed as its own party, so the agent keeps one opponent model per sender
+		Map<String, AgentID> parties = new HashMap<String, AgentID>();
+		AgentID opponent = new AgentID("opponent");
+		long[] actionNanos = new long[64];
+		int actions = 0;
+		long receiveNanos = 0;
+		int received = 0;
+		int mismatches = 0;
+		int firstMismatch = -1;
+		for (byte type = readByte(); type != SessionRecorder.END; type = readByte()) {
+			timeline.setTime(readDouble());
+			if (type == SessionRecorder.RECEIVED) {
+				AgentID sender = opponent;
+				if (senders) {
+					sender = readByte() == 0 ? null : parties.computeIfAbsent(readString(), AgentID::new);
+				}
+				Bid bid = codec.decode(readGenes(bidGenes), 0);
+				long start = System.nanoTime();
+				agent.receiveMessage(sender, new Offer(sender, bid));
+				receiveNanos = receiveNanos + System.nanoTime() - start;
+				received++;
+				continue;
+			}
+			Bid expected = type == SessionRecorder.OTHER ? null : codec.decode(readGenes(bidGenes), 0);
+			long start = System.nanoTime();
+			Action action = agent.chooseAction(null);
+			if (actions == actionNanos.length) {
+				actionNanos = Arrays.copyOf(actionNanos, actions * 2);
+			}
+			actionNanos[actions] = System.nanoTime() - start;
+			if (!sameDecision(type, expected, action)) {
+				mismatches++;
+				if (firstMismatch < 0) {
+					firstMismatch = actions;
+				}
+			}
+			actions++;
+		}
+		agent.negotiationEnded(null);
+
+		long[] sorted = Arrays.copyOf(actionNanos, actions);
+		Arrays.sort(sorted);
+		long total = 0;
+		for (long nanos : sorted) {
+			total = total + nanos;
+		}
+		System.out.println(logName + ": rounds=" + actions + " received=" + received + " mismatches=" + mismatches
+				+ (firstMismatch >= 0 ? " firstMismatchRound=" + firstMismatch : "")
+				+ " initMs=" + initNanos / 1000000.0
+				+ " chooseActionUs<mean=" + (actions == 0 ? 0 : total / actions / 1000)
+				+ ",p50=" + percentile(sorted, 0.5) / 1000
+				+ ",p99=" + percentile(sorted, 0.99) / 1000
+				+ ",max=" + (actions == 0 ? 0 : sorted[actions - 1] / 1000) + ">"
+				+ " receiveMessageUs<mean=" + (received == 0 ? 0 : receiveNanos / received / 1000) + ">");
+		return mismatches;
+	}
+
+	private static boolean sameDecision(byte type, Bid expected, Action action) {
+		if (type == SessionRecorder.OFFER) {
+			return action instanceof Offer && expected.equals(((Offer) action).getBid());
+		}
+		if (type == SessionRecorder.ACCEPT) {
+			return action instanceof Accept && expected.equals(((Accept) action).getBid());
+		}
+		return !(action instanceof Offer) && !(action instanceof Accept);
+	}
+
+	private static long percentile(long[] sorted, double quantile) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+	}
+
+	//Replays session logs written with -Dgaagent.record=dir; exits with 1 on any changed decision
+	public static void main(String[] args) throws IOException {
+		int mismatches = 0;
+		for (String logName : args) {
+			try (RandomAccessFile file = new RandomAccessFile(new File(logName), "r")) {
+				mismatches = mismatches + new SessionReplay(file.getChannel()).replay(logName);
+			}
+		}
+		if (mismatches > 0) {
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,243 @@
+package project;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import genius.core.Bid;
+import genius.core.Domain;
+import genius.core.issue.Issue;
+import genius.core.issue.IssueDiscrete;
+import genius.core.issue.Objective;
+import genius.core.uncertainty.BidRanking;
+import genius.core.utility.AdditiveUtilitySpace;
+import genius.core.utility.Evaluator;
+import genius.core.utility.EvaluatorDiscrete;
+
+public class SnapshotStore {
+
+	//One file per domain and ranking fingerprint, big-endian:
+	//magic, version, fingerprint, issue count, value count, issue weights, raw values (codec order),
+	//max-utility bid genes, population size, population genes (row-major)
+	public static final int MAGIC = 0x47415331;
+	public static final int VERSION = 1;
+	private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	private final File directory;
+
+	public SnapshotStore(File directory) {
+		this.directory = directory;
+	}
+
+	//-Dgaagent.snapshots=directory; null when unset
+	public static SnapshotStore fromSystemProperties() {
+		String directory = System.getProperty("gaagent.snapshots");
+		return directory == null ? null : new SnapshotStore(new File(directory));
+	}
+
+	public static class Snapshot {
+		private final double[] weights;
+		private final double[] values;
+		private final int[] maxUtilityGenes;
+		private final int populationSize;
+		private final int[] populationGenes;
+
+		Snapshot(double[] weights, double[] values, int[] maxUtilityGenes, int populationSize, int[] populationGenes) {
+			this.weights = weights;
+			this.values = values;
+			this.maxUtilityGenes = maxUtilityGenes;
+			this.populationSize = populationSize;
+			this.populationGenes = populationGenes;
+		}
+
+		//Estimated space with the saved weights and raw evaluations
+		public AdditiveUtilitySpace toUtilitySpace(GenomeCodec codec) {
+			return SnapshotStore.toUtilitySpace(codec, weights, values);
+		}
+
+		public int[] getMaxUtilityGenes() {
+			return maxUtilityGenes;
+		}
+
+		public int getPopulationSize() {
+			return populationSize;
+		}
+
+		public int[] getPopulationGenes() {
+			return populationGenes;
+		}
+	}
+
+	//New space with these issue weights and raw evaluations (codec order) on the codec's domain
+	public static AdditiveUtilitySpace toUtilitySpace(GenomeCodec codec, double[] weights, double[] values) {
+		Map<Objective, Evaluator> evaluatorMap = new HashMap<Objective, Evaluator>();
+		for (int i = 0; i < codec.getIssueCount(); i++) {
+			EvaluatorDiscrete evaluator = new EvaluatorDiscrete();
+			evaluator.setWeight(weights[i]);
+			for (int v = 0; v < codec.getValueCount(i); v++) {
+				evaluator.setEvaluationDouble(codec.getValue(i, v), values[codec.getOffset(i) + v]);
+			}
+			evaluatorMap.put(codec.getIssue(i), evaluator);
+		}
+		return new AdditiveUtilitySpace(codec.getDomain(), evaluatorMap);
+	}
+
+	//64-bit FNV-1a over the domain's name, issues and values; equal for separately loaded copies of a domain
+	public static long fingerprint(Domain domain) {
+		long hash = mix(FNV_OFFSET, domain.getName());
+		for (Issue issue : domain.getIssues()) {
+			IssueDiscrete issueDiscrete = (IssueDiscrete) issue;
+			hash = mix(hash, issueDiscrete.getName());
+			hash = mix(hash, issueDiscrete.getNumber());
+			hash = mix(hash, issueDiscrete.getNumberOfValues());
+			for (int v = 0; v < issueDiscrete.getNumberOfValues(); v++) {
+				hash = mix(hash, issueDiscrete.getValue(v).toString());
+			}
+		}
+		return hash;
+	}
+
+	//The domain's fingerprint continued over the ranking's bounds and bids
+	public static long fingerprint(GenomeCodec codec, BidRanking bidRanking) {
+		long hash = fingerprint(codec.getDomain());
+		hash = mix(hash, Double.doubleToLongBits(bidRanking.getLowUtility()));
+		hash = mix(hash, Double.doubleToLongBits(bidRanking.getHighUtility()));
+		List<Bid> bidOrder = bidRanking.getBidOrder();
+		hash = mix(hash, bidOrder.size());
+		int[] genes = new int[codec.getIssueCount()];
+		for (Bid bid : bidOrder) {
+			codec.encode(bid, genes, 0);
+			for (int gene : genes) {
+				hash = mix(hash, gene);
+			}
+		}
+		return hash;
+	}
+
+	private static long mix(long hash, long value) {
+		for (int b = 0; b < 8; b++) {
+			hash = (hash ^ ((value >>> (8 * b)) & 0xff)) * FNV_PRIME;
+		}
+		return hash;
+	}
+
+	private static long mix(long hash, String value) {
+		hash = mix(hash, value.length());
+		for (int c = 0; c < value.length(); c++) {
+			hash = (hash ^ value.charAt(c)) * FNV_PRIME;
+		}
+		return hash;
+	}
+
+	private File getFile(long fingerprint) {
+		return new File(directory, String.format("%016x.gas", fingerprint));
+	}
+
+	//Maps the snapshot of this fingerprint; null if there is none or it does not fit the domain
+	public Snapshot load(long fingerprint, GenomeCodec codec) {
+		File file = getFile(fingerprint);
+		if (!file.isFile()) {
+			return null;
+		}
+		try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+			FileChannel channel = randomAccessFile.getChannel();
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			int issueCount = codec.getIssueCount();
+			int valueCount = codec.getTotalValueCount();
+			if (buffer.remaining() < 28 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+					|| buffer.getLong() != fingerprint || buffer.getInt() != issueCount || buffer.getInt() != valueCount) {
+				return null;
+			}
+			double[] weights = new double[issueCount];
+			double[] values = new double[valueCount];
+			int[] maxUtilityGenes = new int[issueCount];
+			buffer.asDoubleBuffer().get(weights);
+			buffer.position(buffer.position() + 8 * issueCount);
+			buffer.asDoubleBuffer().get(values);
+			buffer.position(buffer.position() + 8 * valueCount);
+			buffer.asIntBuffer().get(maxUtilityGenes);
+			buffer.position(buffer.position() + 4 * issueCount);
+			int populationSize = buffer.getInt();
+			if (populationSize < 0 || (long) populationSize * issueCount * 4 > buffer.remaining()) {
+				return null;
+			}
+			int[] populationGenes = new int[populationSize * issueCount];
+			buffer.asIntBuffer().get(populationGenes);
+			if (!isValid(maxUtilityGenes, codec) || !isValid(populationGenes, codec)) {
+				return null;
+			}
+			return new Snapshot(weights, values, maxUtilityGenes, populationSize, populationGenes);
+		} catch (RuntimeException | IOException e) {
+			//a truncated or foreign file is treated as missing
+			return null;
+		}
+	}
+
+	//Every gene of the row-major genomes is a value index of its issue
+	private static boolean isValid(int[] genes, GenomeCodec codec) {
+		int issueCount = codec.getIssueCount();
+		for (int gene = 0; gene < genes.length; gene++) {
+			if (genes[gene] < 0 || genes[gene] >= codec.getValueCount(gene % issueCount)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	//Writes to a temporary file and renames it, so concurrent sessions never map a partial snapshot
+	public void save(long fingerprint, GenomeCodec codec, AdditiveUtilitySpace utilitySpace, int[] maxUtilityGenes,
+			GenomePopulation population) throws IOException {
+		int issueCount = codec.getIssueCount();
+		int valueCount = codec.getTotalValueCount();
+		int populationSize = population.size();
+		ByteBuffer buffer = ByteBuffer.allocate(28 + 8 * issueCount + 8 * valueCount + 4 * issueCount + 4
+				+ 4 * populationSize * issueCount);
+		buffer.putInt(MAGIC).putInt(VERSION).putLong(fingerprint).putInt(issueCount).putInt(valueCount);
+		for (int i = 0; i < issueCount; i++) {
+			buffer.putDouble(utilitySpace.getWeight(codec.getIssue(i)));
+		}
+		for (int i = 0; i < issueCount; i++) {
+			Issue issue = codec.getIssue(i);
+			EvaluatorDiscrete evaluator = (EvaluatorDiscrete) utilitySpace.getEvaluator(issue);
+			for (int v = 0; v < codec.getValueCount(i); v++) {
+				buffer.putDouble(evaluator.getDoubleValue(codec.getValue(i, v)));
+			}
+		}
+		for (int i = 0; i < issueCount; i++) {
+			buffer.putInt(maxUtilityGenes[i]);
+		}
+		buffer.putInt(populationSize);
+		int[] genes = population.getGenes();
+		for (int row = 0; row < populationSize; row++) {
+			int offset = population.getRowOffset(row);
+			for (int i = 0; i < issueCount; i++) {
+				buffer.putInt(genes[offset + i]);
+			}
+		}
+		buffer.flip();
+
+		directory.mkdirs();
+		File file = getFile(fingerprint);
+		File temporary = File.createTempFile(file.getName(), ".tmp", directory);
+		try {
+			try (RandomAccessFile randomAccessFile = new RandomAccessFile(temporary, "rw")) {
+				FileChannel channel = randomAccessFile.getChannel();
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+			}
+			Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			temporary.delete();
+		}
+	}
+}
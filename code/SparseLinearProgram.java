@@ -0,0 +1,140 @@
+package project;
+
+import java.util.Arrays;
+
+import scpsolver.constraints.LinearBiggerThanEqualsConstraint;
+import scpsolver.constraints.LinearEqualsConstraint;
+import scpsolver.problems.LinearProgram;
+import scpsolver.util.SparseVector;
+
+public class SparseLinearProgram {
+
+	//Minimisation problem, rows stored compressed in the order they were added
+	public static final byte GREATER_EQUAL = 0;
+	public static final byte EQUAL = 1;
+
+	private int columnCount = 0;
+	private double[] objective = new double[16];
+
+	private int rowCount = 0;
+	private int nonZeroCount = 0;
+	private int[] rowStart = new int[17];
+	private byte[] rowType = new byte[16];
+	private double[] rowBound = new double[16];
+	private int[] index = new int[64];
+	private double[] value = new double[64];
+	private final int[] singleIndex = new int[1];
+	private final double[] singleValue = new double[1];
+
+	public int addColumn(double cost) {
+		if (columnCount == objective.length) {
+			objective = Arrays.copyOf(objective, columnCount * 2);
+		}
+		objective[columnCount] = cost;
+		return columnCount++;
+	}
+
+	public void setObjective(int column, double cost) {
+		objective[column] = cost;
+	}
+
+	//Entries must be sorted by column and free of duplicates
+	public int addRow(int[] rowIndex, double[] rowValue, int length, byte type, double bound) {
+		if (rowCount + 1 == rowType.length) {
+			rowType = Arrays.copyOf(rowType, rowType.length * 2);
+			rowBound = Arrays.copyOf(rowBound, rowBound.length * 2);
+			rowStart = Arrays.copyOf(rowStart, rowStart.length * 2);
+		}
+		if (nonZeroCount + length > index.length) {
+			int capacity = Math.max(index.length * 2, nonZeroCount + length);
+			index = Arrays.copyOf(index, capacity);
+			value = Arrays.copyOf(value, capacity);
+		}
+		System.arraycopy(rowIndex, 0, index, nonZeroCount, length);
+		System.arraycopy(rowValue, 0, value, nonZeroCount, length);
+		nonZeroCount = nonZeroCount + length;
+		rowType[rowCount] = type;
+		rowBound[rowCount] = bound;
+		rowCount++;
+		rowStart[rowCount] = nonZeroCount;
+		return rowCount - 1;
+	}
+
+	//Drops every row from the given one on
+	public void truncate(int rows) {
+		rowCount = rows;
+		nonZeroCount = rowStart[rows];
+	}
+
+	public int addBoundRow(int column) {
+		singleIndex[0] = column;
+		singleValue[0] = 1.0;
+		return addRow(singleIndex, singleValue, 1, GREATER_EQUAL, 0.0);
+	}
+
+	//SCPSolver form, every row as a sparse vector
+	public LinearProgram toLinearProgram() {
+		SparseVector objectiveVector = new SparseVector(columnCount, columnCount);
+		for (int column = 0; column < columnCount; column++) {
+			if (objective[column] != 0.0) {
+				objectiveVector.set(column, objective[column]);
+			}
+		}
+		LinearProgram lp = new LinearProgram(objectiveVector);
+		int constraintNum = 1;
+		for (int row = 0; row < rowCount; row++) {
+			SparseVector vector = new SparseVector(columnCount, rowStart[row + 1] - rowStart[row]);
+			for (int k = rowStart[row]; k < rowStart[row + 1]; k++) {
+				vector.set(index[k], value[k]);
+			}
+			if (rowType[row] == EQUAL) {
+				lp.addConstraint(new LinearEqualsConstraint(vector, rowBound[row], "c" + constraintNum));
+			} else {
+				lp.addConstraint(new LinearBiggerThanEqualsConstraint(vector, rowBound[row], "c" + constraintNum));
+			}
+			constraintNum++;
+		}
+		lp.setMinProblem(true);
+		return lp;
+	}
+
+	public int getColumnCount() {
+		return columnCount;
+	}
+
+	public double getObjective(int column) {
+		return objective[column];
+	}
+
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	public int getNonZeroCount() {
+		return nonZeroCount;
+	}
+
+	public int getRowStart(int row) {
+		return rowStart[row];
+	}
+
+	public int getRowEnd(int row) {
+		return rowStart[row + 1];
+	}
+
+	public int getIndex(int entry) {
+		return index[entry];
+	}
+
+	public double getValue(int entry) {
+		return value[entry];
+	}
+
+	public byte getRowType(int row) {
+		return rowType[row];
+	}
+
+	public double getRowBound(int row) {
+		return rowBound[row];
+	}
+}
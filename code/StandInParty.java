@@ -0,0 +1,108 @@
+package project;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import genius.core.AgentID;
+import genius.core.Bid;
+import genius.core.actions.Accept;
+import genius.core.actions.Action;
+import genius.core.actions.Offer;
+import genius.core.parties.AbstractNegotiationParty;
+import genius.core.parties.NegotiationInfo;
+
+public class StandInParty extends AbstractNegotiationParty {
+
+	//Local opponents for headless sessions, knowing their own utility space
+	public static final int RANDOM = 0;
+	public static final int BOULWARE = 1;
+	public static final int CONCEDER = 2;
+	private static final String[] NAMES = { "random", "boulware", "conceder" };
+
+	private static final int SAMPLE_SIZE = 2000;
+	private static final double RESERVATION = 0.4;
+
+	private final int strategy;
+	private Random random;
+	//sampled bids sorted by own utility, lowest first
+	private Bid[] bids;
+	private double[] utilities;
+	private Bid lastReceivedOffer;
+
+	public StandInParty(int strategy) {
+		this.strategy = strategy;
+	}
+
+	@Override
+	public void init(NegotiationInfo info) {
+		super.init(info);
+		random = new Random(info.getRandomSeed());
+		List<Bid> sample = new ArrayList<Bid>();
+		for (int n = 0; n < SAMPLE_SIZE; n++) {
+			sample.add(getDomain().getRandomBid(random));
+		}
+		try {
+			sample.add(utilitySpace.getMaxUtilityBid());
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+		sample.sort((bid1, bid2) -> Double.compare(getUtility(bid1), getUtility(bid2)));
+		bids = sample.toArray(new Bid[sample.size()]);
+		utilities = new double[bids.length];
+		for (int n = 0; n < bids.length; n++) {
+			utilities[n] = getUtility(bids[n]);
+		}
+	}
+
+	//Time-dependent target 1 - (1 - reservation) * t^(1/e); random ignores time
+	private double getTarget() {
+		double time = Math.min(getTimeLine().getTime(), 1.0);
+		switch (strategy) {
+		case BOULWARE:
+			return 1.0 - (1.0 - RESERVATION) * Math.pow(time, 1.0 / 0.2);
+		case CONCEDER:
+			return 1.0 - (1.0 - RESERVATION) * Math.pow(time, 1.0 / 2.0);
+		default:
+			return RESERVATION + (1.0 - RESERVATION) * random.nextDouble();
+		}
+	}
+
+	@Override
+	public Action chooseAction(List<Class<? extends Action>> possibleActions) {
+		double target = getTarget();
+		//lowest sampled bid that still meets the target
+		int low = 0;
+		int high = bids.length - 1;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (utilities[middle] < target) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		Bid bid = bids[low];
+		if (lastReceivedOffer != null && getUtility(lastReceivedOffer) >= Math.min(target, utilities[low])) {
+			return new Accept(getPartyId(), lastReceivedOffer);
+		}
+		return new Offer(getPartyId(), bid);
+	}
+
+	@Override
+	public void receiveMessage(AgentID sender, Action action) {
+		super.receiveMessage(sender, action);
+		if (action instanceof Offer) {
+			lastReceivedOffer = ((Offer) action).getBid();
+		}
+	}
+
+	@Override
+	public String getDescription() {
+		return "StandIn-" + NAMES[strategy];
+	}
+
+	public static String getName(int strategy) {
+		return NAMES[strategy];
+	}
+}
@@ -0,0 +1,114 @@
+package project;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import genius.core.AgentID;
+import genius.core.Bid;
+import genius.core.Deadline;
+import genius.core.DeadlineType;
+import genius.core.Domain;
+import genius.core.DomainImpl;
+import genius.core.issue.Issue;
+import genius.core.issue.IssueDiscrete;
+import genius.core.issue.Objective;
+import genius.core.issue.ValueDiscrete;
+import genius.core.parties.NegotiationInfo;
+import genius.core.timeline.TimeLineInfo;
+import genius.core.uncertainty.BidRanking;
+import genius.core.uncertainty.UserModel;
+import genius.core.utility.AdditiveUtilitySpace;
+import genius.core.utility.Evaluator;
+import genius.core.utility.EvaluatorDiscrete;
+
+public class SyntheticDomain {
+
+	//Stand-in discrete domains for running the agent outside Genius
+	public static Domain createDomain(String name, int issueCount, int valueCount) {
+		DomainImpl domain = new DomainImpl(name);
+		Objective root = new Objective(null, "root", 0);
+		for (int i = 0; i < issueCount; i++) {
+			String[] values = new String[valueCount];
+			for (int v = 0; v < valueCount; v++) {
+				values[v] = "v" + v;
+			}
+			root.addChild(new IssueDiscrete("issue" + i, i + 1, values));
+		}
+		domain.setObjectivesRoot(root);
+		return domain;
+	}
+
+	//Domain with the given issue names, numbers and value names
+	public static Domain createDomain(String name, String[] issueNames, int[] issueNumbers, String[][] values) {
+		DomainImpl domain = new DomainImpl(name);
+		Objective root = new Objective(null, "root", 0);
+		for (int i = 0; i < issueNames.length; i++) {
+			root.addChild(new IssueDiscrete(issueNames[i], issueNumbers[i], values[i]));
+		}
+		domain.setObjectivesRoot(root);
+		return domain;
+	}
+
+	public static AdditiveUtilitySpace createUtilitySpace(Domain domain, Random random) {
+		Map<Objective, Evaluator> evaluatorMap = new HashMap<Objective, Evaluator>();
+		for (Issue i : domain.getIssues()) {
+			IssueDiscrete issue = (IssueDiscrete) i;
+			EvaluatorDiscrete evaluator = new EvaluatorDiscrete();
+			evaluator.setWeight(random.nextDouble());
+			for (ValueDiscrete value : issue.getValues()) {
+				evaluator.setEvaluationDouble(value, random.nextDouble());
+			}
+			evaluator.scaleAllValuesFrom0To1();
+			evaluatorMap.put(issue, evaluator);
+		}
+		AdditiveUtilitySpace utilitySpace = new AdditiveUtilitySpace(domain, evaluatorMap);
+		utilitySpace.normalizeWeights();
+		return utilitySpace;
+	}
+
+	//Distinct random bids ordered from worst to best, like a Genius ranking
+	public static BidRanking createBidRanking(AdditiveUtilitySpace utilitySpace, int size, Random random) {
+		Domain domain = utilitySpace.getDomain();
+		long outcomes = 1;
+		for (Issue issue : domain.getIssues()) {
+			outcomes = outcomes * ((IssueDiscrete) issue).getNumberOfValues();
+			if (outcomes > size) {
+				break;
+			}
+		}
+		int rankingSize = (int) Math.min(size, outcomes);
+		List<Bid> bids = new ArrayList<Bid>();
+		Set<Bid> seen = new HashSet<Bid>();
+		while (bids.size() < rankingSize) {
+			Bid bid = domain.getRandomBid(random);
+			if (seen.add(bid)) {
+				bids.add(bid);
+			}
+		}
+		bids.sort((bid1, bid2) -> Double.compare(utilitySpace.getUtility(bid1), utilitySpace.getUtility(bid2)));
+		return new BidRanking(bids, utilitySpace.getUtility(bids.get(0)), utilitySpace.getUtility(bids.get(bids.size() - 1)));
+	}
+
+	public static NegotiationInfo createInfo(AdditiveUtilitySpace utilitySpace, BidRanking bidRanking, TimeLineInfo timeline,
+			int rounds, long seed, String name) {
+		return createInfo(utilitySpace, bidRanking, timeline, new Deadline(rounds, DeadlineType.ROUND), seed, name);
+	}
+
+	public static NegotiationInfo createInfo(AdditiveUtilitySpace utilitySpace, BidRanking bidRanking, TimeLineInfo timeline,
+			Deadline deadline, long seed, String name) {
+		return new NegotiationInfo(utilitySpace, new UserModel(bidRanking), null, deadline, timeline, seed, new AgentID(name),
+				null);
+	}
+
+	//Party that knows its utility space, without preference uncertainty
+	public static NegotiationInfo createInfo(AdditiveUtilitySpace utilitySpace, TimeLineInfo timeline, int rounds, long seed,
+			String name) {
+		return new NegotiationInfo(utilitySpace, null, null, new Deadline(rounds, DeadlineType.ROUND), timeline, seed,
+				new AgentID(name), null);
+	}
+}
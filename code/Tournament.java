@@ -0,0 +1,197 @@
+package project;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import genius.core.AgentID;
+import genius.core.Bid;
+import genius.core.Domain;
+import genius.core.actions.Accept;
+import genius.core.actions.Action;
+import genius.core.actions.Offer;
+import genius.core.parties.AbstractNegotiationParty;
+import genius.core.timeline.DiscreteTimeline;
+import genius.core.uncertainty.BidRanking;
+import genius.core.utility.AdditiveUtilitySpace;
+
+public class Tournament {
+
+	//Opponent kinds, cycled over the sessions
+	private static final int MIRROR = 3;
+	private static final String[] OPPONENTS = { "random", "boulware", "conceder", "mirror" };
+
+	private static final List<Class<? extends Action>> ACTIONS = Arrays.asList(Accept.class, Offer.class);
+
+	private final int issueCount;
+	private final int valueCount;
+	private final int rounds;
+	private final int rankingSize;
+
+	public Tournament(int issueCount, int valueCount, int rounds, int rankingSize) {
+		this.issueCount = issueCount;
+		this.valueCount = valueCount;
+		this.rounds = rounds;
+		this.rankingSize = rankingSize;
+	}
+
+	public static class SessionResult {
+		public final int opponent;
+		public final boolean agreement;
+		public final double agentUtility;
+		public final double opponentUtility;
+		public final int rounds;
+		//chooseAction time of the GAagent under test, one entry per turn
+		public final long[] turnNanos;
+
+		SessionResult(int opponent, boolean agreement, double agentUtility, double opponentUtility, int rounds, long[] turnNanos) {
+			this.opponent = opponent;
+			this.agreement = agreement;
+			this.agentUtility = agentUtility;
+			this.opponentUtility = opponentUtility;
+			this.rounds = rounds;
+			this.turnNanos = turnNanos;
+		}
+	}
+
+	//One bilateral alternating-offers session on its own synthetic domain; utilities are 0 without agreement
+	public SessionResult runSession(int opponent, long seed) {
+		Random random = new Random(seed);
+		Domain domain = SyntheticDomain.createDomain("tournament", issueCount, valueCount);
+		AdditiveUtilitySpace agentSpace = SyntheticDomain.createUtilitySpace(domain, random);
+		AdditiveUtilitySpace opponentSpace = SyntheticDomain.createUtilitySpace(domain, random);
+		DiscreteTimeline timeline = new DiscreteTimeline(rounds);
+
+		AbstractNegotiationParty[] parties = new AbstractNegotiationParty[2];
+		AgentID[] ids = { new AgentID("GAagent"), new AgentID(OPPONENTS[opponent]) };
+		BidRanking agentRanking = SyntheticDomain.createBidRanking(agentSpace, rankingSize, random);
+		parties[0] = new GAagent();
+		parties[0].init(SyntheticDomain.createInfo(agentSpace, agentRanking, timeline, rounds, random.nextLong(), ids[0].toString()));
+		if (opponent == MIRROR) {
+			BidRanking opponentRanking = SyntheticDomain.createBidRanking(opponentSpace, rankingSize, random);
+			parties[1] = new GAagent();
+			parties[1].init(SyntheticDomain.createInfo(opponentSpace, opponentRanking, timeline, rounds, random.nextLong(),
+					ids[1].toString()));
+		} else {
+			parties[1] = new StandInParty(opponent);
+			parties[1].init(SyntheticDomain.createInfo(opponentSpace, timeline, rounds, random.nextLong(), ids[1].toString()));
+		}
+
+		long[] turnNanos = new long[rounds];
+		int turns = 0;
+		Bid lastOffer = null;
+		int lastOfferer = -1;
+		Bid agreement = null;
+		int starter = (int) (seed & 1);
+		int round = 0;
+		negotiation:
+		for (; round < rounds; round++) {
+			for (int turn = 0; turn < 2; turn++) {
+				int party = (starter + turn) & 1;
+				long start = System.nanoTime();
+				Action action = parties[party].chooseAction(ACTIONS);
+				if (party == 0) {
+					turnNanos[turns++] = System.nanoTime() - start;
+				}
+				if (action instanceof Offer) {
+					lastOffer = ((Offer) action).getBid();
+					lastOfferer = party;
+					parties[1 - party].receiveMessage(ids[party], action);
+				} else if (action instanceof Accept && lastOffer != null && lastOfferer != party) {
+					agreement = lastOffer;
+					break negotiation;
+				} else {
+					break negotiation;
+				}
+			}
+			timeline.increment();
+		}
+		for (AbstractNegotiationParty party : parties) {
+			party.negotiationEnded(agreement);
+		}
+		return new SessionResult(opponent, agreement != null, agreement == null ? 0.0 : agentSpace.getUtility(agreement),
+				agreement == null ? 0.0 : opponentSpace.getUtility(agreement), Math.min(round + 1, rounds),
+				Arrays.copyOf(turnNanos, turns));
+	}
+
+	//Runs sessions in parallel and prints throughput, turn latency, agreement rate and utilities
+	//usage: Tournament [sessions] [threads] [issues] [values] [rounds] [rankingSize] [seed]
+	public static void main(String[] args) throws InterruptedException, ExecutionException {
+		int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		int issueCount = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+		int valueCount = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+		int rounds = args.length > 4 ? Integer.parseInt(args[4]) : 100;
+		int rankingSize = args.length > 5 ? Integer.parseInt(args[5]) : 50;
+		long seed = args.length > 6 ? Long.parseLong(args[6]) : 42L;
+
+		final Tournament tournament = new Tournament(issueCount, valueCount, rounds, rankingSize);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<SessionResult>> futures = new ArrayList<Future<SessionResult>>();
+		long start = System.nanoTime();
+		for (int session = 0; session < sessions; session++) {
+			final int opponent = session % OPPONENTS.length;
+			final long sessionSeed = seed + session;
+			futures.add(executor.submit(() -> tournament.runSession(opponent, sessionSeed)));
+		}
+		List<SessionResult> results = new ArrayList<SessionResult>();
+		for (Future<SessionResult> future : futures) {
+			results.add(future.get());
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		executor.shutdown();
+
+		int turnCount = 0;
+		for (SessionResult result : results) {
+			turnCount = turnCount + result.turnNanos.length;
+		}
+		long[] turnNanos = new long[turnCount];
+		int next = 0;
+		for (SessionResult result : results) {
+			System.arraycopy(result.turnNanos, 0, turnNanos, next, result.turnNanos.length);
+			next = next + result.turnNanos.length;
+		}
+		Arrays.sort(turnNanos);
+
+		System.out.println("sessions=" + sessions + " threads=" + threads + " issues=" + issueCount + " values=" + valueCount
+				+ " rounds=" + rounds + " rankingSize=" + rankingSize);
+		System.out.println(String.format("%.1f sessions/s, %.2f s, turn latency p50=%dus p99=%dus max=%dus", sessions / seconds,
+				seconds, percentile(turnNanos, 0.5) / 1000, percentile(turnNanos, 0.99) / 1000,
+				turnCount == 0 ? 0 : turnNanos[turnCount - 1] / 1000));
+		System.out.println("opponent\tsessions\tagreement\tagentUtility\topponentUtility\trounds");
+		for (int opponent = 0; opponent <= OPPONENTS.length; opponent++) {
+			int count = 0;
+			int agreements = 0;
+			double agentUtility = 0.0;
+			double opponentUtility = 0.0;
+			long sessionRounds = 0;
+			for (SessionResult result : results) {
+				if (opponent < OPPONENTS.length && result.opponent != opponent) {
+					continue;
+				}
+				count++;
+				agreements = agreements + (result.agreement ? 1 : 0);
+				agentUtility = agentUtility + result.agentUtility;
+				opponentUtility = opponentUtility + result.opponentUtility;
+				sessionRounds = sessionRounds + result.rounds;
+			}
+			if (count == 0) {
+				continue;
+			}
+			System.out.println(String.format("%s\t%d\t%.3f\t%.3f\t%.3f\t%.1f", opponent < OPPONENTS.length ? OPPONENTS[opponent] : "all",
+					count, (double) agreements / count, agentUtility / count, opponentUtility / count, (double) sessionRounds / count));
+		}
+	}
+
+	private static long percentile(long[] sorted, double quantile) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+	}
+}